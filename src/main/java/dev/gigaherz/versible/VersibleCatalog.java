@@ -0,0 +1,107 @@
+package dev.gigaherz.versible;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The packages available to a {@link VersibleResolver}: the published versions of each package, and the dependencies of each version.
+ */
+public interface VersibleCatalog
+{
+    /**
+     * Returns the published versions of a package.
+     *
+     * @param name The name of the package.
+     * @return The versions, in ascending order. Empty if the package is unknown.
+     */
+    List<VersibleVersion> versions(String name);
+
+    /**
+     * Returns the dependencies of a version of a package.
+     *
+     * @param name    The name of the package.
+     * @param version The version of the package.
+     * @return The range of versions allowed for each package the version depends on, in a stable order. Empty if the version is unknown.
+     */
+    Map<String, VersibleRange> dependencies(String name, VersibleVersion version);
+
+    /**
+     * Returns a new, empty {@link Mutable} catalog.
+     *
+     * @return The catalog.
+     */
+    static Mutable create()
+    {
+        return new Mutable();
+    }
+
+    /**
+     * A catalog held in memory, which versions can be published to and retracted from. It can be shared between threads.
+     */
+    final class Mutable implements VersibleCatalog
+    {
+        private final Map<String, ConcurrentSkipListMap<VersibleVersion, Map<String, VersibleRange>>> packages = new ConcurrentHashMap<>();
+
+        private Mutable()
+        {
+        }
+
+        /**
+         * Publishes a version of a package, replacing its dependencies if it was already published.
+         *
+         * @param name         The name of the package.
+         * @param version      The version of the package.
+         * @param dependencies The range of versions allowed for each package the version depends on.
+         *                     Their iteration order is kept, and decides the order in which a resolver visits them.
+         * @return This catalog.
+         */
+        public Mutable publish(String name, VersibleVersion version, Map<String, VersibleRange> dependencies)
+        {
+            packages.computeIfAbsent(name, k -> new ConcurrentSkipListMap<>()).put(version, Collections.unmodifiableMap(new LinkedHashMap<>(dependencies)));
+            return this;
+        }
+
+        /**
+         * Retracts a version of a package.
+         *
+         * @param name    The name of the package.
+         * @param version The version of the package.
+         * @return {@code true} if the version was published.
+         */
+        public boolean retract(String name, VersibleVersion version)
+        {
+            var versions = packages.get(name);
+            return versions != null && versions.remove(version) != null;
+        }
+
+        /**
+         * Returns the names of the packages which were ever published to the catalog.
+         *
+         * @return An unmodifiable view of the package names.
+         */
+        public Set<String> names()
+        {
+            return Collections.unmodifiableSet(packages.keySet());
+        }
+
+        @Override
+        public List<VersibleVersion> versions(String name)
+        {
+            var versions = packages.get(name);
+            return versions != null ? List.copyOf(versions.keySet()) : List.of();
+        }
+
+        @Override
+        public Map<String, VersibleRange> dependencies(String name, VersibleVersion version)
+        {
+            var versions = packages.get(name);
+            var dependencies = versions != null ? versions.get(version) : null;
+            return dependencies != null ? dependencies : Map.of();
+        }
+    }
+}
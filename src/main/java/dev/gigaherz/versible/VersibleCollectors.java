@@ -0,0 +1,257 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Stream collectors for versions. This class cannot be instantiated.
+ */
+public class VersibleCollectors
+{
+    /**
+     * Returns a collector that keeps the {@code k} newest distinct versions contained in the given range.
+     * <p>
+     * Only the best {@code k} candidates seen so far are retained, in a bounded set ordered by {@link VersibleVersion#compareTo(VersibleVersion)},
+     * so memory use does not depend on the size of the stream.
+     *
+     * @param k     The maximum number of versions to keep.
+     * @param range The range the versions must be contained in.
+     * @return A collector producing an immutable list of versions, newest first.
+     * @throws IllegalArgumentException If {@code k} is negative.
+     */
+    public static Collector<VersibleVersion, ?, List<VersibleVersion>> topK(int k, VersibleRange range)
+    {
+        if (k < 0)
+            throw new IllegalArgumentException("The number of versions to keep cannot be negative.");
+        return Collector.of(() -> new TopK(k, range), TopK::accept, TopK::combine, TopK::finish);
+    }
+
+    /**
+     * Returns a collector that parses version strings, and keeps the {@code k} newest distinct versions contained in the given range.
+     * <p>
+     * Each string is first compared against the range bounds and the current worst candidate without being parsed,
+     * so the cost of building a {@link VersibleVersion} is only paid for strings that enter the top {@code k}.
+     *
+     * @param k     The maximum number of versions to keep.
+     * @param range The range the versions must be contained in.
+     * @return A collector producing an immutable list of versions, newest first.
+     * @throws IllegalArgumentException If {@code k} is negative. The collector itself throws if a string is not a valid version.
+     */
+    public static Collector<CharSequence, ?, List<VersibleVersion>> topKFromText(int k, VersibleRange range)
+    {
+        if (k < 0)
+            throw new IllegalArgumentException("The number of versions to keep cannot be negative.");
+        return Collector.of(() -> new TopK(k, range), TopK::acceptText, TopK::combine, TopK::finish);
+    }
+
+    /**
+     * Returns a collector that groups a sorted stream of versions by their first {@code length} components,
+     * and computes the lowest version, highest version and count of each group.
+     * Versions with fewer components than {@code length} are grouped by all their components.
+     * <p>
+     * Since the input is sorted, every group is a contiguous run of the stream, so groups are computed in a single pass
+     * without building a key for each version. For example, grouping by the first two components computes the latest patch of each minor line.
+     *
+     * @param length The number of leading components that form the group key.
+     * @return A collector producing an immutable list of groups, in ascending order.
+     * @throws IllegalArgumentException If {@code length} is less than one. The collector itself throws if the stream is not sorted.
+     */
+    public static Collector<VersibleVersion, ?, List<Group>> groupByPrefix(int length)
+    {
+        if (length < 1)
+            throw new IllegalArgumentException("The prefix length must be at least one.");
+        return Collector.of(() -> new Grouping(v -> Math.min(length, v.size())), Grouping::accept, Grouping::combine, Grouping::finish);
+    }
+
+    /**
+     * Returns a collector that groups a sorted stream of versions by the components before their first suffix,
+     * and computes the lowest version, highest version and count of each group.
+     * For example, {@code 1.0-beta}, {@code 1.0} and {@code 1.0+build3} all belong to the {@code 1.0} group.
+     *
+     * @return A collector producing an immutable list of groups, in ascending order.
+     * @see #groupByPrefix(int)
+     */
+    public static Collector<VersibleVersion, ?, List<Group>> groupByRelease()
+    {
+        return Collector.of(() -> new Grouping(VersibleCollectors::releaseLength), Grouping::accept, Grouping::combine, Grouping::finish);
+    }
+
+    private static int releaseLength(VersibleVersion version)
+    {
+        int size = version.size();
+        for (int i = 0; i < size; i++)
+        {
+            if (version.get(i) instanceof VersibleComponent.Suffix)
+                return i;
+        }
+        return size;
+    }
+
+    /**
+     * A group of versions sharing the same leading components.
+     *
+     * @param keyLength The number of leading components shared by every version in the group.
+     * @param min       The lowest version in the group.
+     * @param max       The highest version in the group.
+     * @param count     The number of versions in the group, including duplicates.
+     */
+    public record Group(int keyLength, VersibleVersion min, VersibleVersion max, long count)
+    {
+        /**
+         * Returns the leading components shared by every version in the group.
+         *
+         * @return The key of the group, or null if the group has no leading components,
+         * as with versions which start with a suffix when {@linkplain #groupByRelease() grouping by release}.
+         */
+        @Nullable
+        public VersibleVersion key()
+        {
+            if (keyLength == 0)
+                return null;
+            return keyLength == min.size() ? min : new VersibleVersion(min.components().subList(0, keyLength));
+        }
+    }
+
+    private static final class Grouping
+    {
+        private final ToIntFunction<VersibleVersion> keyLength;
+        private final List<Group> groups = new ArrayList<>();
+        private VersibleVersion min;
+        private VersibleVersion max;
+        private int currentKeyLength;
+        private long count;
+
+        Grouping(ToIntFunction<VersibleVersion> keyLength)
+        {
+            this.keyLength = keyLength;
+        }
+
+        void accept(VersibleVersion version)
+        {
+            if (max != null)
+            {
+                if (max.compareTo(version) > 0)
+                    throw new IllegalArgumentException("The versions must be sorted in ascending order, but " + version + " came after " + max + ".");
+                if (sameGroup(version))
+                {
+                    max = version;
+                    count++;
+                    return;
+                }
+                groups.add(new Group(currentKeyLength, min, max, count));
+            }
+            min = max = version;
+            currentKeyLength = keyLength.applyAsInt(version);
+            count = 1;
+        }
+
+        private boolean sameGroup(VersibleVersion version)
+        {
+            if (keyLength.applyAsInt(version) != currentKeyLength)
+                return false;
+            for (int i = currentKeyLength - 1; i >= 0; i--)
+            {
+                if (!version.get(i).equals(min.get(i)))
+                    return false;
+            }
+            return true;
+        }
+
+        Grouping combine(Grouping other)
+        {
+            if (other.max == null)
+                return this;
+            if (max == null)
+                return other;
+            other.flush();
+            for (var group : other.groups)
+            {
+                if (max.compareTo(group.min()) > 0)
+                    throw new IllegalArgumentException("The versions must be sorted in ascending order, but " + group.min() + " came after " + max + ".");
+                if (sameGroup(group.min()))
+                {
+                    max = group.max();
+                    count += group.count();
+                    continue;
+                }
+                flush();
+                min = group.min();
+                max = group.max();
+                currentKeyLength = group.keyLength();
+                count = group.count();
+            }
+            return this;
+        }
+
+        private void flush()
+        {
+            if (max != null)
+                groups.add(new Group(currentKeyLength, min, max, count));
+            min = max = null;
+        }
+
+        List<Group> finish()
+        {
+            flush();
+            return List.copyOf(groups);
+        }
+    }
+
+    private static final class TopK
+    {
+        private final int k;
+        private final VersibleRange range;
+        private final TreeSet<VersibleVersion> best = new TreeSet<>();
+        private final VersibleLexer lexer = new VersibleLexer();
+
+        TopK(int k, VersibleRange range)
+        {
+            this.k = k;
+            this.range = range;
+        }
+
+        void accept(VersibleVersion version)
+        {
+            if (range.contains(version))
+                offer(version);
+        }
+
+        void acceptText(CharSequence text)
+        {
+            if (!lexer.contains(text, range))
+                return;
+            if (best.size() == k && (k == 0 || lexer.reset(text).compareRest(best.first()) <= 0))
+                return;
+            offer(VersibleParser.parseVersion(text.toString()));
+        }
+
+        private void offer(VersibleVersion version)
+        {
+            if (best.size() < k)
+                best.add(version);
+            else if (k > 0 && version.compareTo(best.first()) > 0 && best.add(version))
+                best.pollFirst();
+        }
+
+        TopK combine(TopK other)
+        {
+            other.best.forEach(this::offer);
+            return this;
+        }
+
+        List<VersibleVersion> finish()
+        {
+            return List.copyOf(best.descendingSet());
+        }
+    }
+
+    private VersibleCollectors()
+    {
+        throw new IllegalArgumentException("This class cannot be instantiated.");
+    }
+}
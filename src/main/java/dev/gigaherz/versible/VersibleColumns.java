@@ -0,0 +1,269 @@
+package dev.gigaherz.versible;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A batch of versions stored column by column, for filtering many versions against a range at once.
+ * <p>
+ * Versions made of up to {@value #MAX_COMPONENTS} numeric components, which are the majority in most repositories, are stored in one
+ * {@code long[]} column per component, with missing components stored as {@code -1} so that a shorter version sorts before any of its extensions.
+ * Comparing them against a bound is then a lexicographic comparison of the columns, evaluated 64 rows at a time
+ * into a bit mask, without branches or per-row object access. Range bounds with suffixes, words or more components,
+ * such as the bounds of approximate ranges, are compared as the numeric prefix they sort next to. Other versions
+ * fall back to {@link VersibleRange#contains(VersibleVersion)}, so the result is always the same as testing each version with the range.
+ * Instances are immutable.
+ */
+public class VersibleColumns
+{
+    /**
+     * The maximum number of numeric components a version can have to be stored in columns.
+     */
+    public static final int MAX_COMPONENTS = 4;
+
+    private static final int MISSING = -1;
+
+    // How a range bound relates to the row it is written as
+    private static final int EXACT = 0;
+    private static final int BEFORE = 1;
+    private static final int AFTER = 2;
+
+    private final List<VersibleVersion> versions;
+    private final long[][] columns;
+    private final long[] fallback;
+    private final int fallbackCount;
+
+    /**
+     * Stores a batch of versions in columns.
+     *
+     * @param versions The versions. They do not need to be sorted.
+     * @return The batch.
+     */
+    public static VersibleColumns of(List<VersibleVersion> versions)
+    {
+        return new VersibleColumns(List.copyOf(versions));
+    }
+
+    private VersibleColumns(List<VersibleVersion> versions)
+    {
+        this.versions = versions;
+        int size = versions.size();
+        this.columns = new long[MAX_COMPONENTS][size];
+        this.fallback = new long[words(size)];
+        int fallbackCount = 0;
+        var row = new long[MAX_COMPONENTS];
+        for (int i = 0; i < size; i++)
+        {
+            if (toColumns(versions.get(i), row))
+            {
+                for (int c = 0; c < MAX_COMPONENTS; c++)
+                    columns[c][i] = row[c];
+            }
+            else
+            {
+                fallback[i >>> 6] |= 1L << i;
+                fallbackCount++;
+            }
+        }
+        this.fallbackCount = fallbackCount;
+    }
+
+    /**
+     * Returns the number of versions in the batch.
+     *
+     * @return The number of versions.
+     */
+    public int size()
+    {
+        return versions.size();
+    }
+
+    /**
+     * Adds the size of the columns, and of the versions they were built from, to a footprint.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        footprint.object(3 * VersibleFootprint.REFERENCE + Integer.BYTES);
+        footprint.add(versions);
+        footprint.add(columns);
+        footprint.add(fallback);
+    }
+
+    /**
+     * Returns a version in the batch.
+     *
+     * @param row The index of the version.
+     * @return The version.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    public VersibleVersion get(int row)
+    {
+        return versions.get(row);
+    }
+
+    /**
+     * Returns the number of versions which could not be stored in columns, and are always tested with {@link VersibleRange#contains(VersibleVersion)}.
+     *
+     * @return The number of versions stored as objects only.
+     */
+    public int fallbackCount()
+    {
+        return fallbackCount;
+    }
+
+    /**
+     * Finds the versions contained in a range.
+     *
+     * @param range The range.
+     * @return A new bit set, with the bit of each contained version set.
+     */
+    public BitSet filter(VersibleRange range)
+    {
+        int size = versions.size();
+        long[] min = null;
+        long[] max = null;
+        boolean minExclusive = range.minExclusive();
+        boolean maxExclusive = range.maxExclusive();
+        if (range.minVersion() != null)
+        {
+            min = new long[MAX_COMPONENTS];
+            int relation = toBound(range.minVersion(), min);
+            if (relation != EXACT)
+                minExclusive = relation == AFTER;
+        }
+        if (range.maxVersion() != null)
+        {
+            max = new long[MAX_COMPONENTS];
+            int relation = toBound(range.maxVersion(), max);
+            if (relation != EXACT)
+                maxExclusive = relation == BEFORE;
+        }
+
+        var words = new long[words(size)];
+        var masks = new long[2];
+        for (int w = 0; w < words.length; w++)
+        {
+            int base = w << 6;
+            int count = Math.min(64, size - base);
+            long valid = count == 64 ? -1L : (1L << count) - 1;
+            long word = valid & ~fallback[w];
+            if (min != null)
+            {
+                compare(min, base, count, masks);
+                word &= minExclusive ? ~(masks[0] | masks[1]) : ~masks[0];
+            }
+            if (max != null)
+            {
+                compare(max, base, count, masks);
+                word &= maxExclusive ? masks[0] : masks[0] | masks[1];
+            }
+
+            for (long pending = fallback[w]; pending != 0; pending &= pending - 1)
+            {
+                int bit = Long.numberOfTrailingZeros(pending);
+                if (range.contains(versions.get(base + bit)))
+                    word |= 1L << bit;
+            }
+            words[w] = word;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Compares a block of up to 64 rows against a bound, component by component,
+     * and stores the mask of rows that sort before the bound and the mask of rows equal to it.
+     */
+    private void compare(long[] bound, int base, int count, long[] masks)
+    {
+        long below = 0;
+        long equal = -1L;
+        for (int c = 0; c < MAX_COMPONENTS; c++)
+        {
+            var column = columns[c];
+            long value = bound[c];
+            long componentBelow = 0;
+            long componentEqual = 0;
+            for (int i = 0; i < count; i++)
+            {
+                long x = column[base + i];
+                componentBelow |= (x < value ? 1L : 0L) << i;
+                componentEqual |= (x == value ? 1L : 0L) << i;
+            }
+            below |= equal & componentBelow;
+            equal &= componentEqual;
+        }
+        masks[0] = below;
+        masks[1] = equal;
+    }
+
+    /**
+     * Checks if a version can be stored in columns, that is, if it only has up to {@value #MAX_COMPONENTS} numeric components.
+     */
+    static boolean fits(VersibleVersion version)
+    {
+        int size = version.size();
+        if (size > MAX_COMPONENTS)
+            return false;
+        for (int c = 0; c < size; c++)
+        {
+            if (!(version.get(c) instanceof VersibleComponent.Numeric))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the components of a version into a row, if it only has up to {@value #MAX_COMPONENTS} numeric components.
+     */
+    private static boolean toColumns(VersibleVersion version, long[] row)
+    {
+        int size = version.size();
+        if (size > MAX_COMPONENTS)
+            return false;
+        for (int c = 0; c < MAX_COMPONENTS; c++)
+        {
+            if (c >= size)
+            {
+                row[c] = MISSING;
+            }
+            else if (version.get(c) instanceof VersibleComponent.Numeric numeric)
+            {
+                row[c] = numeric.number();
+            }
+            else
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a range bound into a row, as the numeric prefix it compares like for every version stored in columns.
+     * <p>
+     * A bound made of up to {@value #MAX_COMPONENTS} numeric components is written as is, and {@link #EXACT} is returned. Otherwise, the bound
+     * is written as its numeric prefix, up to its first other component or its {@value #MAX_COMPONENTS}th component, and no stored version can equal it.
+     * If a negative suffix follows the prefix, the bound sorts after every version below the prefix, and before the prefix and its extensions,
+     * so {@link #BEFORE} is returned: for example, {@code 1.0.0-} is between every version below {@code 1.0.0} and {@code 1.0.0} itself.
+     * Otherwise, the bound sorts after the prefix but before any longer version extending it, so {@link #AFTER} is returned.
+     */
+    private static int toBound(VersibleVersion bound, long[] row)
+    {
+        int size = bound.size();
+        int prefix = 0;
+        while (prefix < size && prefix < MAX_COMPONENTS && bound.get(prefix) instanceof VersibleComponent.Numeric numeric)
+            row[prefix++] = numeric.number();
+        for (int c = prefix; c < MAX_COMPONENTS; c++)
+            row[c] = MISSING;
+        if (prefix == size)
+            return EXACT;
+        if (VersibleComponent.kindOf(bound.get(prefix)) == VersibleComponent.NEGATIVE_SUFFIX)
+            return BEFORE;
+        return AFTER;
+    }
+
+    private static int words(int size)
+    {
+        return (size + 63) >>> 6;
+    }
+}
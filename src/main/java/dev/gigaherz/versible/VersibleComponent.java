@@ -4,9 +4,34 @@ import org.jetbrains.annotations.NotNull;
 
 /**
  * Represents a component within a version string.
+ * <p>
+ * The hierarchy is sealed: every component is a {@link Numeric}, an {@link Alphabetic} or a {@link Suffix}. Each kind of component has an ordinal,
+ * in the order kinds sort in, and comparisons dispatch on the pair of ordinals in a single static routine, {@link #compare(VersibleComponent, VersibleComponent)},
+ * instead of through a virtual call on each component, so that the whole comparison of two versions can be inlined.
  */
-public interface VersibleComponent extends Comparable<VersibleComponent>
+public sealed interface VersibleComponent extends Comparable<VersibleComponent>
+        permits VersibleComponent.Numeric, VersibleComponent.Alphabetic, VersibleComponent.Suffix
 {
+    /**
+     * The kind of a negative {@link Suffix}, which sorts before every other kind.
+     */
+    int NEGATIVE_SUFFIX = 0;
+
+    /**
+     * The kind of a positive {@link Suffix}.
+     */
+    int POSITIVE_SUFFIX = 1;
+
+    /**
+     * The kind of an {@link Alphabetic} component.
+     */
+    int ALPHABETIC = 2;
+
+    /**
+     * The kind of a {@link Numeric} component, which sorts after every other kind.
+     */
+    int NUMERIC = 3;
+
     /**
      * Returns a numeric component with the given number. The number must be positive or zero.
      *
@@ -40,6 +65,44 @@ public interface VersibleComponent extends Comparable<VersibleComponent>
         return new Suffix(positive);
     }
 
+    /**
+     * Returns the kind of a component.
+     *
+     * @param component The component.
+     * @return One of {@link #NEGATIVE_SUFFIX}, {@link #POSITIVE_SUFFIX}, {@link #ALPHABETIC} or {@link #NUMERIC}.
+     */
+    static int kindOf(VersibleComponent component)
+    {
+        // The implementations are final, so each check is a single class comparison rather than a virtual call
+        if (component instanceof Numeric)
+            return NUMERIC;
+        if (component instanceof Alphabetic)
+            return ALPHABETIC;
+        return ((Suffix) component).positive() ? POSITIVE_SUFFIX : NEGATIVE_SUFFIX;
+    }
+
+    /**
+     * Compares two components. Components of different kinds sort by kind: negative suffixes, then positive suffixes,
+     * then alphabetic components, then numeric components. Numbers are compared by value, and words lexicographically.
+     *
+     * @param a The first component.
+     * @param b The second component.
+     * @return A negative number, zero, or a positive number if the first component sorts before, the same as, or after the second.
+     */
+    static int compare(VersibleComponent a, VersibleComponent b)
+    {
+        int kind = kindOf(a);
+        int otherKind = kindOf(b);
+        if (kind != otherKind)
+            return Integer.compare(kind, otherKind);
+        return switch (kind)
+        {
+            case NUMERIC -> Long.compare(((Numeric) a).number, ((Numeric) b).number);
+            case ALPHABETIC -> ((Alphabetic) a).word.compareTo(((Alphabetic) b).word);
+            default -> 0;
+        };
+    }
+
     /**
      * Represents a numeric component.
      */
@@ -60,9 +123,7 @@ public interface VersibleComponent extends Comparable<VersibleComponent>
         @Override
         public int compareTo(@NotNull VersibleComponent o)
         {
-            if (o instanceof Numeric n)
-                return Long.compare(this.number, n.number);
-            return 1;
+            return VersibleComponent.compare(this, o);
         }
 
         @Override
@@ -95,9 +156,7 @@ public interface VersibleComponent extends Comparable<VersibleComponent>
         @Override
         public int compareTo(@NotNull VersibleComponent o)
         {
-            if (o instanceof Alphabetic a)
-                return word.compareTo(a.word);
-            return o instanceof Suffix ? 1 : -1;
+            return VersibleComponent.compare(this, o);
         }
 
         @Override
@@ -116,9 +175,7 @@ public interface VersibleComponent extends Comparable<VersibleComponent>
         @Override
         public int compareTo(@NotNull VersibleComponent o)
         {
-            if (o instanceof Suffix s && s.positive == positive)
-                return 0;
-            return -1;
+            return VersibleComponent.compare(this, o);
         }
 
         @Override
@@ -0,0 +1,338 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable component lists that reference the components of the version they were derived from, instead of copying them.
+ * Deriving a version from another only costs the components that changed.
+ * Parsed component lists can also carry the text they were parsed from, so it does not need to be rendered again.
+ */
+final class VersibleComponentLists
+{
+    /**
+     * The maximum number of views stacked on top of each other before a derived list is flattened into a plain copy,
+     * which keeps {@link List#get(int)} from degrading on long derivation chains.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * Returns an immutable list with the components of {@code tail} after the components of {@code head}.
+     *
+     * @param head The leading components. Must be immutable.
+     * @param tail The trailing components. Must be immutable.
+     * @return The concatenated list.
+     */
+    static List<VersibleComponent> concat(List<VersibleComponent> head, List<VersibleComponent> tail)
+    {
+        if (tail.isEmpty())
+            return head;
+        var list = new Concat(head, tail);
+        return list.depth > MAX_DEPTH ? List.copyOf(list) : list;
+    }
+
+    /**
+     * Returns an immutable list with the same components as {@code base}, except for the component at {@code index}.
+     *
+     * @param base      The original components. Must be immutable.
+     * @param index     The index of the component to replace.
+     * @param component The new component.
+     * @return The list with the replaced component.
+     */
+    static List<VersibleComponent> replace(List<VersibleComponent> base, int index, VersibleComponent component)
+    {
+        var list = new Replace(base, index, component);
+        return list.depth > MAX_DEPTH ? List.copyOf(list) : list;
+    }
+
+    /**
+     * Returns an immutable list with the given components, which remembers the text they were parsed from.
+     *
+     * @param components The components. Must be immutable.
+     * @param source     The canonical text representation of the components.
+     * @return The list carrying the source text.
+     */
+    static List<VersibleComponent> withSource(List<VersibleComponent> components, String source)
+    {
+        return new Sourced(components, source);
+    }
+
+    /**
+     * Returns the text a component list was parsed from, if it was retained.
+     *
+     * @param components The components.
+     * @return The canonical text representation of the components, or {@code null} if it was not retained.
+     */
+    @Nullable
+    static String sourceOf(List<VersibleComponent> components)
+    {
+        if (components instanceof Sourced s)
+            return s.source;
+        if (components instanceof Lazy l && l.canonical)
+            return l.source;
+        if (components instanceof Hashed h)
+            return h.source;
+        return null;
+    }
+
+    /**
+     * Returns an immutable flat copy of a component list, which computes its hash code once and keeps the source text of the original list, if any.
+     *
+     * @param components The components.
+     * @return The list with a cached hash code.
+     */
+    static List<VersibleComponent> hashed(List<VersibleComponent> components)
+    {
+        if (components instanceof Hashed)
+            return components;
+        return new Hashed(components.toArray(new VersibleComponent[0]), sourceOf(components));
+    }
+
+    /**
+     * Returns an immutable list that holds only the text of a version, and parses it on first access.
+     *
+     * @param source    The text of the version. Must have been validated already.
+     * @param canonical Whether the text is the canonical representation of the version.
+     * @return The lazily parsed list.
+     */
+    static List<VersibleComponent> lazy(String source, boolean canonical)
+    {
+        return new Lazy(source, canonical);
+    }
+
+    /**
+     * Adds the size of one of the component lists of this class to a footprint.
+     *
+     * @param list      The value to measure.
+     * @param footprint The footprint.
+     * @return {@code true} if the value is one of the component lists of this class.
+     */
+    static boolean measureTo(Object list, VersibleFootprint footprint)
+    {
+        // Every list also holds the modification count inherited from AbstractList
+        int ref = VersibleFootprint.REFERENCE;
+        if (list instanceof Concat c)
+        {
+            footprint.object(2 * ref + 4 * Integer.BYTES);
+            footprint.add(c.head);
+            footprint.add(c.tail);
+        }
+        else if (list instanceof Replace r)
+        {
+            footprint.object(2 * ref + 3 * Integer.BYTES);
+            footprint.add(r.base);
+            footprint.add(r.component);
+        }
+        else if (list instanceof Sourced s)
+        {
+            footprint.object(2 * ref + Integer.BYTES);
+            footprint.add(s.components);
+            footprint.add(s.source);
+        }
+        else if (list instanceof Lazy l)
+        {
+            footprint.object(2 * ref + Integer.BYTES + 1);
+            footprint.add(l.source);
+            footprint.add(l.components);
+        }
+        else if (list instanceof Hashed h)
+        {
+            footprint.object(2 * ref + 2 * Integer.BYTES);
+            footprint.add(h.components);
+            footprint.add(h.source);
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
+    private static int depthOf(List<VersibleComponent> list)
+    {
+        if (list instanceof Concat c)
+            return c.depth;
+        if (list instanceof Replace r)
+            return r.depth;
+        return 0;
+    }
+
+    private static final class Concat extends AbstractList<VersibleComponent> implements RandomAccess
+    {
+        private final List<VersibleComponent> head;
+        private final List<VersibleComponent> tail;
+        private final int headSize;
+        private final int size;
+        private final int depth;
+
+        Concat(List<VersibleComponent> head, List<VersibleComponent> tail)
+        {
+            this.head = head;
+            this.tail = tail;
+            this.headSize = head.size();
+            this.size = headSize + tail.size();
+            this.depth = 1 + Math.max(depthOf(head), depthOf(tail));
+        }
+
+        @Override
+        public VersibleComponent get(int index)
+        {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            return index < headSize ? head.get(index) : tail.get(index - headSize);
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    }
+
+    private static final class Replace extends AbstractList<VersibleComponent> implements RandomAccess
+    {
+        private final List<VersibleComponent> base;
+        private final int index;
+        private final VersibleComponent component;
+        private final int depth;
+
+        Replace(List<VersibleComponent> base, int index, VersibleComponent component)
+        {
+            if (index < 0 || index >= base.size())
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + base.size());
+            this.base = base;
+            this.index = index;
+            this.component = component;
+            this.depth = 1 + depthOf(base);
+        }
+
+        @Override
+        public VersibleComponent get(int index)
+        {
+            return index == this.index ? component : base.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return base.size();
+        }
+    }
+
+    private static final class Sourced extends AbstractList<VersibleComponent> implements RandomAccess
+    {
+        private final List<VersibleComponent> components;
+        private final String source;
+
+        Sourced(List<VersibleComponent> components, String source)
+        {
+            this.components = components;
+            this.source = source;
+        }
+
+        @Override
+        public VersibleComponent get(int index)
+        {
+            return components.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return components.size();
+        }
+    }
+
+    private static final class Lazy extends AbstractList<VersibleComponent> implements RandomAccess
+    {
+        private final String source;
+        private final boolean canonical;
+        @Nullable
+        private volatile List<VersibleComponent> components;
+
+        Lazy(String source, boolean canonical)
+        {
+            this.source = source;
+            this.canonical = canonical;
+        }
+
+        private List<VersibleComponent> components()
+        {
+            // Racing threads may both parse the text, but they produce equal immutable lists, so either one can be kept
+            var list = components;
+            if (list == null)
+                components = list = VersibleParser.parseComponents(source);
+            return list;
+        }
+
+        @Override
+        public VersibleComponent get(int index)
+        {
+            return components().get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return components().size();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            // Validation already rejected empty versions
+            return false;
+        }
+    }
+
+    private static final class Hashed extends AbstractList<VersibleComponent> implements RandomAccess
+    {
+        private final VersibleComponent[] components;
+        @Nullable
+        private final String source;
+        private final int hash;
+
+        Hashed(VersibleComponent[] components, @Nullable String source)
+        {
+            this.components = components;
+            this.source = source;
+            this.hash = Arrays.hashCode(components);
+        }
+
+        @Override
+        public VersibleComponent get(int index)
+        {
+            return components[index];
+        }
+
+        @Override
+        public int size()
+        {
+            return components.length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (o == this)
+                return true;
+            if (o instanceof Hashed h)
+                return hash == h.hash && Arrays.equals(components, h.components);
+            return super.equals(o);
+        }
+    }
+
+    private VersibleComponentLists()
+    {
+    }
+}
@@ -0,0 +1,101 @@
+package dev.gigaherz.versible;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events emitted by the library.
+ * <p>
+ * All events are disabled by default, and cost nothing beyond a field check while no recording has enabled them.
+ * They can be enabled by name in a {@code .jfc} settings file, or with {@code jdk.jfr.Recording#enable(String)}.
+ */
+final class VersibleEvents
+{
+    @Name("dev.gigaherz.versible.ParseVersion")
+    @Label("Parse Version")
+    @Description("A call to VersibleParser.parseVersion")
+    @Category({"Versible", "Parsing"})
+    @StackTrace(false)
+    static final class ParseVersion extends Event
+    {
+        @Label("Input Length")
+        int inputLength;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("dev.gigaherz.versible.ParseRange")
+    @Label("Parse Range")
+    @Description("A call to VersibleParser.parseRange")
+    @Category({"Versible", "Parsing"})
+    @StackTrace(false)
+    static final class ParseRange extends Event
+    {
+        @Label("Range")
+        String range;
+
+        @Label("Input Length")
+        int inputLength;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("dev.gigaherz.versible.CacheLookup")
+    @Label("Cache Lookup")
+    @Description("A lookup in one of the caches, indexes or pools of the library")
+    @Category({"Versible", "Caching"})
+    @StackTrace(false)
+    static final class CacheLookup extends Event
+    {
+        @Label("Cache")
+        String cache;
+
+        @Label("Hit")
+        boolean hit;
+    }
+
+    @Name("dev.gigaherz.versible.Footprint")
+    @Label("Footprint")
+    @Description("The estimated heap retained by a structure registered with VersibleFootprint")
+    @Category({"Versible", "Memory"})
+    @StackTrace(false)
+    @Period("60 s")
+    static final class Footprint extends Event
+    {
+        @Label("Structure")
+        String structure;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * Commits a {@link CacheLookup} event if a recording is interested in it.
+     *
+     * @param event The event, on which {@link Event#begin()} was called before the lookup started.
+     * @param cache The name of the cache.
+     * @param hit   Whether the lookup found an existing entry.
+     */
+    static void cacheLookup(CacheLookup event, String cache, boolean hit)
+    {
+        if (event.shouldCommit())
+        {
+            event.cache = cache;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    private VersibleEvents()
+    {
+    }
+}
@@ -0,0 +1,172 @@
+package dev.gigaherz.versible;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A 128-bit fingerprint of a set of constraints and the catalog they are resolved against, suitable as a persistent cache key.
+ * <p>
+ * The fingerprint is the truncated SHA-256 digest of a canonical form, in which constraints and catalog entries are sorted and deduplicated,
+ * and versions and ranges are written in their canonical text form. It only depends on the values added to the builder,
+ * not on the order they were added in, nor on {@link Object#hashCode()}, so it is stable across processes and library versions.
+ *
+ * @param high The most significant 64 bits of the fingerprint.
+ * @param low  The least significant 64 bits of the fingerprint.
+ */
+public record VersibleFingerprint(long high, long low)
+{
+    /**
+     * Returns a new, empty {@link Builder}.
+     *
+     * @return The builder.
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Returns the fingerprint of a set of constraints and the catalog they are resolved against.
+     *
+     * @param constraints The constraints.
+     * @param catalog     The versions available to satisfy the constraints.
+     * @return The fingerprint.
+     */
+    public static VersibleFingerprint of(Collection<VersibleRange> constraints, Collection<VersibleVersion> catalog)
+    {
+        var builder = builder();
+        constraints.forEach(range -> builder.constraint("", range));
+        catalog.forEach(version -> builder.available("", version));
+        return builder.build();
+    }
+
+    /**
+     * Returns the fingerprint as 32 hexadecimal digits.
+     *
+     * @return The hexadecimal representation of the fingerprint.
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Collects constraints and catalog entries, optionally grouped by a name such as the package they apply to.
+     */
+    public static final class Builder
+    {
+        private final TreeMap<String, TreeSet<String>> constraints = new TreeMap<>();
+        private final TreeMap<String, TreeSet<VersibleVersion>> catalog = new TreeMap<>();
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Adds a constraint.
+         *
+         * @param name  The name the constraint applies to, or an empty string.
+         * @param range The allowed versions.
+         * @return This builder.
+         */
+        public Builder constraint(String name, VersibleRange range)
+        {
+            constraints.computeIfAbsent(name, k -> new TreeSet<>()).add(range.toString());
+            return this;
+        }
+
+        /**
+         * Adds an available version to the catalog.
+         *
+         * @param name    The name the version belongs to, or an empty string.
+         * @param version The available version.
+         * @return This builder.
+         */
+        public Builder available(String name, VersibleVersion version)
+        {
+            catalog.computeIfAbsent(name, k -> new TreeSet<>()).add(version);
+            return this;
+        }
+
+        /**
+         * Adds every version of a catalog snapshot.
+         *
+         * @param versions The available versions, by name.
+         * @return This builder.
+         */
+        public Builder available(Map<String, ? extends Collection<VersibleVersion>> versions)
+        {
+            versions.forEach((name, list) -> list.forEach(version -> available(name, version)));
+            return this;
+        }
+
+        /**
+         * Computes the fingerprint of the values added so far.
+         *
+         * @return The fingerprint.
+         */
+        public VersibleFingerprint build()
+        {
+            MessageDigest digest;
+            try
+            {
+                digest = MessageDigest.getInstance("SHA-256");
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                throw new IllegalStateException("SHA-256 is required to be supported by every Java platform", e);
+            }
+
+            // Every string is length-prefixed, so different inputs can never produce the same byte sequence
+            write(digest, "versible-fingerprint-1");
+            write(digest, "constraints");
+            writeInt(digest, constraints.size());
+            constraints.forEach((name, ranges) ->
+            {
+                write(digest, name);
+                writeInt(digest, ranges.size());
+                ranges.forEach(range -> write(digest, range));
+            });
+            write(digest, "catalog");
+            writeInt(digest, catalog.size());
+            catalog.forEach((name, versions) ->
+            {
+                write(digest, name);
+                writeInt(digest, versions.size());
+                versions.forEach(version -> write(digest, version.toString()));
+            });
+
+            byte[] hash = digest.digest();
+            return new VersibleFingerprint(toLong(hash, 0), toLong(hash, 8));
+        }
+
+        private static void write(MessageDigest digest, String value)
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(digest, bytes.length);
+            digest.update(bytes);
+        }
+
+        private static void writeInt(MessageDigest digest, int value)
+        {
+            digest.update((byte) (value >>> 24));
+            digest.update((byte) (value >>> 16));
+            digest.update((byte) (value >>> 8));
+            digest.update((byte) value);
+        }
+
+        private static long toLong(byte[] bytes, int offset)
+        {
+            long value = 0;
+            for (int i = 0; i < 8; i++)
+                value = (value << 8) | (bytes[offset + i] & 0xFF);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package dev.gigaherz.versible;
+
+import jdk.jfr.FlightRecorder;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Estimates the heap retained by versions, ranges, collections of them, and the caches and indexes of the library.
+ * <p>
+ * An instance accumulates the values {@linkplain #add(Object) added} to it, and counts every object reachable from them once, by identity:
+ * components shared between derived versions, versions interned in a {@link VersiblePool}, and bounds shared between ranges only cost
+ * their size the first time they are reached. Adding several structures to the same instance therefore estimates their combined footprint,
+ * without counting what they share twice.
+ * <p>
+ * Sizes are estimated from the layout of a 64-bit JVM with compressed references: {@value #OBJECT_HEADER} byte object headers,
+ * {@value #ARRAY_HEADER} byte array headers, {@value #REFERENCE} byte references, and objects aligned to {@value #ALIGNMENT} bytes.
+ * Hash tables are counted as their bucket array plus one node per entry. Objects of unknown classes only count their header.
+ * <p>
+ * Structures can also be {@linkplain #register(String, Object) registered} under a name, to be measured periodically by {@link #report()},
+ * by a {@linkplain #schedule(ScheduledExecutorService, Duration, Consumer) scheduled task}, or by the periodic footprint event of the
+ * JDK Flight Recorder. Instances are not thread-safe. Structures which can be shared between threads may be measured while other threads use them;
+ * a structure which fails to be measured, for example because it was modified concurrently although it does not support it, is left out of the report.
+ */
+public class VersibleFootprint
+{
+    /**
+     * The estimated size of an object header, in bytes.
+     */
+    public static final int OBJECT_HEADER = 12;
+
+    /**
+     * The estimated size of an array header, including its length, in bytes.
+     */
+    public static final int ARRAY_HEADER = 16;
+
+    /**
+     * The estimated size of a reference, in bytes.
+     */
+    public static final int REFERENCE = 4;
+
+    /**
+     * The estimated alignment of objects, in bytes.
+     */
+    public static final int ALIGNMENT = 8;
+
+    private static final Map<String, WeakReference<Object>> registered = new ConcurrentHashMap<>();
+    private static volatile boolean periodicEventAdded;
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long bytes;
+
+    /**
+     * Estimates the heap retained by a version, including its components.
+     *
+     * @param version The version.
+     * @return The estimated size in bytes.
+     */
+    public static long of(VersibleVersion version)
+    {
+        return new VersibleFootprint().add(version).bytes();
+    }
+
+    /**
+     * Estimates the heap retained by a range, including its bounds.
+     *
+     * @param range The range.
+     * @return The estimated size in bytes.
+     */
+    public static long of(VersibleRange range)
+    {
+        return new VersibleFootprint().add(range).bytes();
+    }
+
+    /**
+     * Estimates the heap retained by a collection, including its elements. Elements shared with each other are counted once.
+     *
+     * @param collection The collection.
+     * @return The estimated size in bytes.
+     */
+    public static long of(Collection<?> collection)
+    {
+        return new VersibleFootprint().add(collection).bytes();
+    }
+
+    /**
+     * Adds a value, and every object reachable from it which was not already counted, to the footprint.
+     *
+     * @param value The value, which can be a version, a range, a component, a string, an array, a collection, a map,
+     *              or one of the caches and indexes of the library.
+     * @return This footprint.
+     */
+    public VersibleFootprint add(@Nullable Object value)
+    {
+        if (value == null || !visited.add(value))
+            return this;
+
+        if (measureStructure(value) || VersibleComponentLists.measureTo(value, this))
+            return this;
+
+        if (value instanceof VersibleVersion version)
+        {
+            object(REFERENCE);
+            add(version.components());
+        }
+        else if (value instanceof VersibleRange range)
+        {
+            object(2 * REFERENCE + 2);
+            add(range.minVersion());
+            add(range.maxVersion());
+        }
+        else if (value instanceof VersibleComponent component)
+        {
+            switch (VersibleComponent.kindOf(component))
+            {
+                case VersibleComponent.NUMERIC -> object(Long.BYTES);
+                case VersibleComponent.ALPHABETIC ->
+                {
+                    object(REFERENCE);
+                    add(((VersibleComponent.Alphabetic) component).word());
+                }
+                default -> object(1);
+            }
+        }
+        else if (value instanceof String string)
+        {
+            // The hash, coder and hash-is-zero fields, plus the value array, which takes one byte per character unless one is outside Latin-1
+            object(Integer.BYTES + 2 + REFERENCE);
+            array(string.length(), string.chars().allMatch(c -> c < 256) ? 1 : 2);
+        }
+        else if (value.getClass().isArray())
+        {
+            var type = value.getClass().getComponentType();
+            int length = Array.getLength(value);
+            if (type.isPrimitive())
+            {
+                array(length, type == long.class || type == double.class ? 8 : type == int.class || type == float.class ? 4 : type == short.class || type == char.class ? 2 : 1);
+            }
+            else
+            {
+                array(length, REFERENCE);
+                for (var element : (Object[]) value)
+                    add(element);
+            }
+        }
+        else if (value instanceof Map<?, ?> map)
+        {
+            object(6 * REFERENCE + 4 * Integer.BYTES);
+            table(map.size());
+            map.forEach((k, v) ->
+            {
+                add(k);
+                add(v);
+            });
+        }
+        else if (value instanceof Collection<?> collection)
+        {
+            object(REFERENCE + 2 * Integer.BYTES);
+            array(collection.size(), REFERENCE);
+            for (var element : collection)
+                add(element);
+        }
+        else
+        {
+            object(0);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the size of one of the caches or indexes of the library, which report their own layout.
+     */
+    private boolean measureStructure(Object value)
+    {
+        if (value instanceof VersibleVersionIndex index)
+            index.measureTo(this);
+        else if (value instanceof VersibleVersionIndex.Snapshot snapshot)
+            snapshot.measureTo(this);
+        else if (value instanceof VersibleFrontCodedList list)
+            list.measureTo(this);
+        else if (value instanceof VersibleVersionTrie trie)
+            trie.measureTo(this);
+        else if (value instanceof VersiblePool pool)
+            pool.measureTo(this);
+        else if (value instanceof VersibleLatestCache cache)
+            cache.measureTo(this);
+        else if (value instanceof VersibleResolutionCache cache)
+            cache.measureTo(this);
+        else if (value instanceof VersibleRangeTable table)
+            table.measureTo(this);
+        else if (value instanceof VersibleColumns columns)
+            columns.measureTo(this);
+        else if (value instanceof VersibleQuery query)
+            query.measureTo(this);
+        else
+            return false;
+        return true;
+    }
+
+    /**
+     * Returns the estimated size of everything added so far.
+     *
+     * @return The estimated size in bytes.
+     */
+    public long bytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * Counts an object with the given size of fields, excluding its header.
+     *
+     * @param fieldBytes The total size of the fields.
+     */
+    void object(long fieldBytes)
+    {
+        objects(1, fieldBytes);
+    }
+
+    /**
+     * Counts several objects with the same size of fields, excluding their headers.
+     *
+     * @param count      The number of objects.
+     * @param fieldBytes The total size of the fields of each object.
+     */
+    void objects(long count, long fieldBytes)
+    {
+        bytes += count * align(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * Counts an array, without its elements if they are objects.
+     *
+     * @param length      The length of the array.
+     * @param elementSize The size of each element.
+     */
+    void array(long length, int elementSize)
+    {
+        bytes += align(ARRAY_HEADER + length * elementSize);
+    }
+
+    /**
+     * Counts the bucket array and nodes of a hash table, without its keys and values.
+     *
+     * @param size The number of entries.
+     */
+    void table(int size)
+    {
+        if (size == 0)
+            return;
+        int buckets = Integer.highestOneBit(Math.max(16, (int) (size / 0.75f)) - 1) << 1;
+        array(buckets, REFERENCE);
+        // Each node holds the hash, the key, the value and the next node
+        bytes += (long) size * align(OBJECT_HEADER + Integer.BYTES + 3 * REFERENCE);
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * Registers a structure to be included in footprint reports. The structure is only held weakly, and is dropped from reports once it is reclaimed.
+     *
+     * @param name      The name to report the structure under. A structure already registered under the same name is replaced.
+     * @param structure The structure, which can be any value accepted by {@link #add(Object)}.
+     */
+    public static void register(String name, Object structure)
+    {
+        registered.put(name, new WeakReference<>(structure));
+        if (!periodicEventAdded)
+        {
+            synchronized (VersibleFootprint.class)
+            {
+                if (!periodicEventAdded)
+                {
+                    FlightRecorder.addPeriodicEvent(VersibleEvents.Footprint.class, VersibleFootprint::emitEvents);
+                    periodicEventAdded = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a structure from footprint reports.
+     *
+     * @param name The name the structure was registered under.
+     */
+    public static void unregister(String name)
+    {
+        registered.remove(name);
+    }
+
+    /**
+     * Measures every registered structure which is still reachable. Each structure is measured on its own,
+     * so values shared between structures are counted in each of them. Structures which fail to be measured,
+     * for example because they were modified by another thread during the measurement, are left out, and measured again in the next report.
+     *
+     * @return An immutable map from structure name to estimated size in bytes, sorted by name.
+     */
+    public static Map<String, Long> report()
+    {
+        var report = new TreeMap<String, Long>();
+        for (var entry : registered.entrySet())
+        {
+            var structure = entry.getValue().get();
+            if (structure == null)
+            {
+                registered.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            try
+            {
+                report.put(entry.getKey(), new VersibleFootprint().add(structure).bytes());
+            }
+            catch (RuntimeException e)
+            {
+                // Structures which are not thread-safe can throw while they are being modified, which must not stop the periodic reports
+            }
+        }
+        return Collections.unmodifiableMap(report);
+    }
+
+    /**
+     * Reports the footprint of the registered structures periodically.
+     *
+     * @param executor The executor to run the measurements on.
+     * @param period   The time between reports.
+     * @param listener The listener receiving each {@link #report() report}.
+     * @return The scheduled task, which can be cancelled to stop reporting.
+     * @throws IllegalArgumentException If the period is not positive.
+     */
+    public static ScheduledFuture<?> schedule(ScheduledExecutorService executor, Duration period, Consumer<Map<String, Long>> listener)
+    {
+        if (period.isNegative() || period.isZero())
+            throw new IllegalArgumentException("The period must be positive.");
+        long nanos = period.toNanos();
+        return executor.scheduleAtFixedRate(() -> listener.accept(report()), nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static void emitEvents()
+    {
+        report().forEach((name, bytes) ->
+        {
+            var event = new VersibleEvents.Footprint();
+            event.structure = name;
+            event.bytes = bytes;
+            event.commit();
+        });
+    }
+}
@@ -0,0 +1,574 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+
+/**
+ * An immutable sorted list of distinct versions, stored in compressed form.
+ * <p>
+ * Each version is front-coded: only the number of leading components it shares with the previous version is stored,
+ * followed by its remaining components. Most components take a single byte, and words are replaced by their index in a sorted dictionary.
+ * Every {@code restartInterval} entries, a version is stored in full, and lookups binary search these restart points before decoding a single block,
+ * so {@link #floor}, {@link #ceiling} and {@link #matching} only decode the blocks they need. Versions are only materialized when they are returned.
+ */
+public class VersibleFrontCodedList extends AbstractList<VersibleVersion> implements RandomAccess
+{
+    /**
+     * The default number of entries between restart points.
+     */
+    public static final int DEFAULT_RESTART_INTERVAL = 16;
+
+    /**
+     * Values up to this limit are stored in the component header byte, larger ones follow it as a varint.
+     */
+    private static final int INLINE_LIMIT = 63;
+
+    private final byte[] data;
+    private final int[] restarts;
+    private final String[] words;
+    private final int size;
+    private final int restartInterval;
+
+    /**
+     * Returns a compressed list with the given versions, using the {@link #DEFAULT_RESTART_INTERVAL default restart interval}.
+     *
+     * @param versions The versions to store. They do not need to be sorted, and duplicates are removed.
+     * @return The compressed list.
+     */
+    public static VersibleFrontCodedList of(Collection<VersibleVersion> versions)
+    {
+        return of(versions, DEFAULT_RESTART_INTERVAL);
+    }
+
+    /**
+     * Returns a compressed list with the given versions.
+     * Longer restart intervals compress better, while shorter ones make random access and lookups decode less.
+     *
+     * @param versions        The versions to store. They do not need to be sorted, and duplicates are removed.
+     * @param restartInterval The number of entries between restart points.
+     * @return The compressed list.
+     * @throws IllegalArgumentException If the restart interval is less than one.
+     */
+    public static VersibleFrontCodedList of(Collection<VersibleVersion> versions, int restartInterval)
+    {
+        if (restartInterval < 1)
+            throw new IllegalArgumentException("The restart interval must be at least one.");
+        var sorted = new TreeSet<>(versions).toArray(new VersibleVersion[0]);
+
+        var dictionary = new TreeSet<String>();
+        for (var version : sorted)
+        {
+            for (var component : version.components())
+            {
+                if (component instanceof VersibleComponent.Alphabetic a)
+                    dictionary.add(a.word());
+            }
+        }
+        var words = dictionary.toArray(new String[0]);
+        Map<String, Integer> wordIds = new HashMap<>();
+        for (int i = 0; i < words.length; i++)
+            wordIds.put(words[i], i);
+
+        var out = new Output();
+        int[] restarts = new int[(sorted.length + restartInterval - 1) / restartInterval];
+        for (int i = 0; i < sorted.length; i++)
+        {
+            var version = sorted[i];
+            int shared = 0;
+            if (i % restartInterval == 0)
+            {
+                restarts[i / restartInterval] = out.length;
+            }
+            else
+            {
+                var previous = sorted[i - 1];
+                int max = Math.min(previous.size(), version.size());
+                while (shared < max && previous.get(shared).equals(version.get(shared)))
+                    shared++;
+            }
+            out.varint(shared);
+            out.varint(version.size() - shared);
+            for (int c = shared; c < version.size(); c++)
+            {
+                var component = version.get(c);
+                int kind = VersibleComponent.kindOf(component);
+                switch (kind)
+                {
+                    case VersibleComponent.NUMERIC -> out.component(kind, ((VersibleComponent.Numeric) component).number());
+                    case VersibleComponent.ALPHABETIC -> out.component(kind, wordIds.get(((VersibleComponent.Alphabetic) component).word()));
+                    default -> out.component(kind, 0);
+                }
+            }
+        }
+        return new VersibleFrontCodedList(Arrays.copyOf(out.bytes, out.length), restarts, words, sorted.length, restartInterval);
+    }
+
+    private VersibleFrontCodedList(byte[] data, int[] restarts, String[] words, int size, int restartInterval)
+    {
+        this.data = data;
+        this.restarts = restarts;
+        this.words = words;
+        this.size = size;
+        this.restartInterval = restartInterval;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Adds the size of the encoded entries and the word dictionary to a footprint. Versions are only materialized when returned, so they are not counted.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        // The modification count inherited from AbstractList, besides the fields of this class
+        footprint.object(3 * VersibleFootprint.REFERENCE + 3 * Integer.BYTES);
+        footprint.add(data);
+        footprint.add(restarts);
+        footprint.add(words);
+    }
+
+    /**
+     * Returns the version at the given position, decoding the entries between it and the previous restart point.
+     *
+     * @param index The index of the version.
+     * @return The version.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    @Override
+    public VersibleVersion get(int index)
+    {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        var cursor = new Cursor();
+        cursor.seek(index / restartInterval);
+        while (cursor.index < index)
+            cursor.next();
+        return cursor.toVersion();
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        if (!(o instanceof VersibleVersion version))
+            return false;
+        var probe = new Probe(version);
+        return count(probe, true) > count(probe, false);
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        if (!(o instanceof VersibleVersion version))
+            return -1;
+        var probe = new Probe(version);
+        int before = count(probe, false);
+        return count(probe, true) > before ? before : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o)
+    {
+        return indexOf(o);
+    }
+
+    /**
+     * Returns the highest version in the list that is less than or equal to the given version.
+     *
+     * @param version The version to compare against.
+     * @return The matching version, or {@code null} if there is no such version.
+     */
+    @Nullable
+    public VersibleVersion floor(VersibleVersion version)
+    {
+        int position = count(new Probe(version), true);
+        return position > 0 ? get(position - 1) : null;
+    }
+
+    /**
+     * Returns the lowest version in the list that is greater than or equal to the given version.
+     *
+     * @param version The version to compare against.
+     * @return The matching version, or {@code null} if there is no such version.
+     */
+    @Nullable
+    public VersibleVersion ceiling(VersibleVersion version)
+    {
+        int position = count(new Probe(version), false);
+        return position < size ? get(position) : null;
+    }
+
+    /**
+     * Returns the versions in the list that are contained in the given range.
+     * Iterating the returned list decodes each block once, starting from the first matching version.
+     *
+     * @param range The range to match.
+     * @return An immutable view of the matching versions, in ascending order.
+     */
+    public List<VersibleVersion> matching(VersibleRange range)
+    {
+        var min = range.minVersion();
+        var max = range.maxVersion();
+        int from = min != null ? count(new Probe(min), range.minExclusive()) : 0;
+        int to = max != null ? count(new Probe(max), !range.maxExclusive()) : size;
+        return to > from ? subList(from, to) : List.of();
+    }
+
+    @Override
+    public Iterator<VersibleVersion> iterator()
+    {
+        return new Iter(0, size);
+    }
+
+    @Override
+    public Spliterator<VersibleVersion> spliterator()
+    {
+        return spliterator(0, size);
+    }
+
+    @Override
+    public List<VersibleVersion> subList(int fromIndex, int toIndex)
+    {
+        subListRangeCheck(fromIndex, toIndex, size);
+        return new Slice(fromIndex, toIndex);
+    }
+
+    private Spliterator<VersibleVersion> spliterator(int from, int to)
+    {
+        // Sequential decoding, instead of the default random access spliterator which would decode from a restart point for every element
+        return Spliterators.spliterator(new Iter(from, to), to - from,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * Returns the size of the encoded entries, not counting the word dictionary and the restart points.
+     *
+     * @return The number of bytes used by the encoded entries.
+     */
+    public int encodedBytes()
+    {
+        return data.length;
+    }
+
+    /**
+     * Returns the number of entries that sort before the probe, or before or equal to it if {@code inclusive}.
+     */
+    private int count(Probe probe, boolean inclusive)
+    {
+        if (size == 0)
+            return 0;
+
+        // Find the last block whose first entry is counted
+        var cursor = new Cursor();
+        int low = 0;
+        int high = restarts.length - 1;
+        int block = -1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            cursor.seek(mid);
+            if (counts(cursor.compareTo(probe), inclusive))
+            {
+                block = mid;
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        if (block < 0)
+            return 0;
+
+        cursor.seek(block);
+        int end = Math.min(size, (block + 1) * restartInterval);
+        while (cursor.index + 1 < end)
+        {
+            cursor.next();
+            if (!counts(cursor.compareTo(probe), inclusive))
+                return cursor.index;
+        }
+        return end;
+    }
+
+    private static boolean counts(int comparison, boolean inclusive)
+    {
+        return inclusive ? comparison <= 0 : comparison < 0;
+    }
+
+    private static void subListRangeCheck(int fromIndex, int toIndex, int size)
+    {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + size);
+    }
+
+    /**
+     * A version to search for, with its words replaced by positions relative to the dictionary:
+     * {@code 2 * id} for words in the dictionary, and {@code 2 * insertionPoint - 1} for words between two dictionary entries.
+     */
+    private final class Probe
+    {
+        final int length;
+        final byte[] tags;
+        final long[] values;
+
+        Probe(VersibleVersion version)
+        {
+            length = version.size();
+            tags = new byte[length];
+            values = new long[length];
+            for (int i = 0; i < length; i++)
+            {
+                var component = version.get(i);
+                int kind = VersibleComponent.kindOf(component);
+                tags[i] = (byte) kind;
+                switch (kind)
+                {
+                    case VersibleComponent.NUMERIC -> values[i] = ((VersibleComponent.Numeric) component).number();
+                    case VersibleComponent.ALPHABETIC ->
+                    {
+                        int id = Arrays.binarySearch(words, ((VersibleComponent.Alphabetic) component).word());
+                        values[i] = id >= 0 ? 2L * id : 2L * -(id + 1) - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes entries sequentially, keeping the components of the current entry in primitive buffers.
+     * Words are decoded to {@code 2 * id}, to be comparable with {@link Probe}.
+     */
+    private final class Cursor
+    {
+        int index = -1;
+        int offset;
+        int length;
+        byte[] tags = new byte[8];
+        long[] values = new long[8];
+
+        void seek(int block)
+        {
+            index = block * restartInterval - 1;
+            offset = restarts[block];
+            length = 0;
+            next();
+        }
+
+        void next()
+        {
+            int shared = readVarint();
+            int added = readVarint();
+            length = shared + added;
+            if (length > tags.length)
+            {
+                tags = Arrays.copyOf(tags, Math.max(length, tags.length * 2));
+                values = Arrays.copyOf(values, tags.length);
+            }
+            for (int i = shared; i < length; i++)
+            {
+                int header = data[offset++] & 0xFF;
+                int kind = header & 3;
+                long value = header >>> 2;
+                if (value == INLINE_LIMIT)
+                    value = readVarintLong();
+                tags[i] = (byte) kind;
+                values[i] = kind == VersibleComponent.ALPHABETIC ? 2 * value : value;
+            }
+            index++;
+        }
+
+        private long readVarintLong()
+        {
+            long value = 0;
+            int shift = 0;
+            while (true)
+            {
+                byte b = data[offset++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+                shift += 7;
+            }
+        }
+
+        private int readVarint()
+        {
+            return (int) readVarintLong();
+        }
+
+        /**
+         * Compares the current entry with a probe, with the same result as {@link VersibleVersion#compareTo(VersibleVersion)}.
+         */
+        int compareTo(Probe probe)
+        {
+            int min = Math.min(length, probe.length);
+            for (int i = 0; i < min; i++)
+            {
+                if (tags[i] != probe.tags[i])
+                    return Integer.compare(tags[i], probe.tags[i]);
+                if (values[i] != probe.values[i])
+                    return Long.compare(values[i], probe.values[i]);
+            }
+            if (length > probe.length)
+                return tags[min] == VersibleComponent.NEGATIVE_SUFFIX ? -1 : 1;
+            if (length < probe.length)
+                return probe.tags[min] == VersibleComponent.NEGATIVE_SUFFIX ? 1 : -1;
+            return 0;
+        }
+
+        VersibleVersion toVersion()
+        {
+            var components = new VersibleComponent[length];
+            for (int i = 0; i < length; i++)
+            {
+                components[i] = switch (tags[i])
+                {
+                    case VersibleComponent.NUMERIC -> VersibleComponent.of(values[i]);
+                    case VersibleComponent.ALPHABETIC -> VersibleComponent.of(words[(int) (values[i] / 2)]);
+                    default -> VersibleComponent.suffix(tags[i] == VersibleComponent.POSITIVE_SUFFIX);
+                };
+            }
+            return new VersibleVersion(List.of(components));
+        }
+    }
+
+    private final class Iter implements Iterator<VersibleVersion>
+    {
+        private final int to;
+        private int next;
+        @Nullable
+        private Cursor cursor;
+
+        Iter(int from, int to)
+        {
+            this.next = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next < to;
+        }
+
+        @Override
+        public VersibleVersion next()
+        {
+            if (next >= to)
+                throw new NoSuchElementException();
+            if (cursor == null)
+            {
+                cursor = new Cursor();
+                cursor.seek(next / restartInterval);
+            }
+            else if (next % restartInterval == 0)
+            {
+                // Restart points are stored in full, so seeking is cheaper than decoding the shared prefix
+                cursor.seek(next / restartInterval);
+            }
+            while (cursor.index < next)
+                cursor.next();
+            next++;
+            return cursor.toVersion();
+        }
+    }
+
+    private final class Slice extends AbstractList<VersibleVersion> implements RandomAccess
+    {
+        private final int from;
+        private final int to;
+
+        Slice(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public VersibleVersion get(int index)
+        {
+            if (index < 0 || index >= to - from)
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + (to - from));
+            return VersibleFrontCodedList.this.get(from + index);
+        }
+
+        @Override
+        public int size()
+        {
+            return to - from;
+        }
+
+        @Override
+        public Iterator<VersibleVersion> iterator()
+        {
+            return new Iter(from, to);
+        }
+
+        @Override
+        public Spliterator<VersibleVersion> spliterator()
+        {
+            return VersibleFrontCodedList.this.spliterator(from, to);
+        }
+
+        @Override
+        public List<VersibleVersion> subList(int fromIndex, int toIndex)
+        {
+            subListRangeCheck(fromIndex, toIndex, to - from);
+            return new Slice(from + fromIndex, from + toIndex);
+        }
+    }
+
+    private static final class Output
+    {
+        byte[] bytes = new byte[256];
+        int length;
+
+        /**
+         * Writes a component header, with the {@linkplain VersibleComponent#kindOf(VersibleComponent) kind} of the component in its low two bits.
+         */
+        void component(int kind, long value)
+        {
+            if (value < INLINE_LIMIT)
+            {
+                write((int) (value << 2) | kind);
+            }
+            else
+            {
+                write(INLINE_LIMIT << 2 | kind);
+                varint(value);
+            }
+        }
+
+        void varint(long value)
+        {
+            while ((value & ~0x7FL) != 0)
+            {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void write(int b)
+        {
+            if (length == bytes.length)
+                bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = (byte) b;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the newest version of a package contained in a range, for the {@link VersibleCatalog} it reads from.
+ * <p>
+ * Entries are keyed by package name and range, and ranges are interned in a {@link VersiblePool}, so equal ranges share a single key.
+ * When a version is published, only the entries whose range contains it, and whose result is older than it, are invalidated;
+ * when a version is retracted, only the entries that returned it are. Entries for the same package but other ranges stay valid,
+ * so the hit rate does not collapse while a package is being published to. Each package has a generation counter, incremented on every change,
+ * so a result computed while the package changed is never stored.
+ * <p>
+ * The cache holds up to a fixed number of entries. Beyond that, entries are evicted in insertion order, except that entries which were read
+ * since the last eviction pass are given a second chance. Lookups are tracked in the {@value #CACHE} {@link VersibleMetrics#cacheHits(String) cache counters},
+ * and reported as cache lookup events. A cache can be shared between threads.
+ */
+public class VersibleLatestCache
+{
+    /**
+     * The cache name used in metrics and events.
+     */
+    public static final String CACHE = "latest";
+
+    private final VersibleCatalog catalog;
+    private final int capacity;
+    private final VersiblePool pool = new VersiblePool();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Key>> keysByPackage = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Queue<Entry> evictionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder hits = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheHits(CACHE));
+    private final LongAdder misses = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheMisses(CACHE));
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param catalog  The catalog to read versions from. The cache must be notified after a version is published or retracted.
+     * @param capacity The maximum number of entries.
+     * @throws IllegalArgumentException If the capacity is less than one.
+     */
+    public VersibleLatestCache(VersibleCatalog catalog, int capacity)
+    {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be at least one.");
+        this.catalog = catalog;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the newest version of a package contained in a range, reading it from the catalog if it is not cached.
+     *
+     * @param name  The name of the package.
+     * @param range The range.
+     * @return The newest contained version, or {@code null} if the package has no version in the range.
+     */
+    @Nullable
+    public VersibleVersion newest(String name, VersibleRange range)
+    {
+        var event = new VersibleEvents.CacheLookup();
+        event.begin();
+        var key = new Key(name, pool.intern(range));
+        var entry = entries.get(key);
+        if (entry != null)
+        {
+            // Only write the flag when it changes, so hits on a hot entry do not keep invalidating its cache line
+            if (!entry.referenced)
+                entry.referenced = true;
+            hits.increment();
+            VersibleEvents.cacheLookup(event, CACHE, true);
+            return entry.newest;
+        }
+
+        var generation = generation(name);
+        long before = generation.get();
+        var versions = catalog.versions(name);
+        VersibleVersion newest = null;
+        for (int i = versions.size() - 1; i >= 0; i--)
+        {
+            if (key.range.contains(versions.get(i)))
+            {
+                newest = versions.get(i);
+                break;
+            }
+        }
+
+        var created = new Entry(key, newest);
+        if (entries.computeIfAbsent(key, k -> index(created)) == created)
+        {
+            evictionOrder.add(created);
+            queued.incrementAndGet();
+            // The package changed while reading it, and the invalidation may have run before the entry was stored
+            if (generation.get() != before)
+                remove(key, created);
+            evict();
+        }
+
+        misses.increment();
+        VersibleEvents.cacheLookup(event, CACHE, false);
+        return newest;
+    }
+
+    /**
+     * Invalidates the entries affected by a newly published version. Call this after the version is added to the catalog.
+     *
+     * @param name    The name of the package.
+     * @param version The published version.
+     * @return The number of invalidated entries.
+     */
+    public int published(String name, VersibleVersion version)
+    {
+        generation(name).incrementAndGet();
+        return invalidate(name, (key, entry) -> key.range.contains(version) && (entry.newest == null || version.compareTo(entry.newest) > 0));
+    }
+
+    /**
+     * Invalidates the entries affected by a retracted version. Call this after the version is removed from the catalog.
+     *
+     * @param name    The name of the package.
+     * @param version The retracted version.
+     * @return The number of invalidated entries.
+     */
+    public int retracted(String name, VersibleVersion version)
+    {
+        generation(name).incrementAndGet();
+        return invalidate(name, (key, entry) -> version.equals(entry.newest));
+    }
+
+    /**
+     * Invalidates every entry of a package.
+     *
+     * @param name The name of the package.
+     * @return The number of invalidated entries.
+     */
+    public int invalidate(String name)
+    {
+        generation(name).incrementAndGet();
+        return invalidate(name, (key, entry) -> true);
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return The number of entries.
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Adds the size of the entries, their keys and results, and the bookkeeping of the cache to a footprint.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        footprint.object(9 * VersibleFootprint.REFERENCE + Integer.BYTES);
+        footprint.add(pool);
+        footprint.table(entries.size());
+        for (var entry : entries.values())
+        {
+            footprint.object(2 * VersibleFootprint.REFERENCE + 1);
+            footprint.object(2 * VersibleFootprint.REFERENCE);
+            footprint.add(entry.key.name);
+            footprint.add(entry.key.range);
+            footprint.add(entry.newest);
+        }
+        footprint.table(keysByPackage.size());
+        for (var keys : keysByPackage.values())
+            footprint.table(keys.size());
+        footprint.table(generations.size());
+        footprint.objects(generations.size(), Long.BYTES);
+        // One node per queued entry, holding the entry and the next node
+        footprint.objects(queued.get(), 2 * VersibleFootprint.REFERENCE);
+    }
+
+    private int invalidate(String name, Invalidation invalidation)
+    {
+        var keys = keysByPackage.get(name);
+        if (keys == null)
+            return 0;
+        int count = 0;
+        for (var key : keys)
+        {
+            var entry = entries.get(key);
+            if (entry != null && invalidation.test(key, entry) && remove(key, entry))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Adds the key of a new entry to the index of its package. Called while the entry is being stored, so it cannot interleave with a removal of the same key.
+     */
+    private Entry index(Entry entry)
+    {
+        keysByPackage.computeIfAbsent(entry.key.name, k -> ConcurrentHashMap.newKeySet()).add(entry.key);
+        return entry;
+    }
+
+    /**
+     * Removes an entry if it is still the one stored for its key. The key is removed from the index of its package while the entry is being removed,
+     * so a new entry stored for the same key concurrently is always indexed.
+     */
+    private boolean remove(Key key, Entry entry)
+    {
+        var removed = new boolean[1];
+        entries.computeIfPresent(key, (k, current) ->
+        {
+            if (current != entry)
+                return current;
+            var keys = keysByPackage.get(k.name);
+            if (keys != null)
+                keys.remove(k);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Evicts entries until the cache is within its capacity, giving a second chance to entries read since they were last considered.
+     * Invalidated entries are only dropped from the eviction queue when they are reached, so the queue is also trimmed when they accumulate.
+     */
+    private void evict()
+    {
+        while (true)
+        {
+            boolean full = entries.size() > capacity;
+            if (!full && queued.get() <= 2 * capacity)
+                return;
+            var entry = evictionOrder.poll();
+            if (entry == null)
+                return;
+            queued.decrementAndGet();
+            if (entries.get(entry.key) != entry)
+                continue;
+            if (full && !entry.referenced)
+            {
+                remove(entry.key, entry);
+                continue;
+            }
+            if (full)
+                entry.referenced = false;
+            evictionOrder.add(entry);
+            queued.incrementAndGet();
+        }
+    }
+
+    private AtomicLong generation(String name)
+    {
+        return generations.computeIfAbsent(name, k -> new AtomicLong());
+    }
+
+    private record Key(String name, VersibleRange range)
+    {
+    }
+
+    private static final class Entry
+    {
+        private final Key key;
+        @Nullable
+        private final VersibleVersion newest;
+        private volatile boolean referenced;
+
+        Entry(Key key, @Nullable VersibleVersion newest)
+        {
+            this.key = key;
+            this.newest = newest;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Invalidation
+    {
+        boolean test(Key key, Entry entry);
+    }
+}
@@ -0,0 +1,372 @@
+package dev.gigaherz.versible;
+
+/**
+ * Walks the components of a version string without allocating them, following the same grammar as {@link VersibleParser#parseVersion(String)}.
+ * <p>
+ * This allows comparing version strings against each other, or against parsed versions, without parsing them first.
+ * An instance is reusable through {@link #reset(CharSequence, int, int)}, and is not thread-safe.
+ */
+final class VersibleLexer
+{
+    // Token kinds, ordered the same way as the corresponding components sort.
+    static final int NEGATIVE = VersibleComponent.NEGATIVE_SUFFIX;
+    static final int POSITIVE = VersibleComponent.POSITIVE_SUFFIX;
+    static final int WORD = VersibleComponent.ALPHABETIC;
+    static final int NUMBER = VersibleComponent.NUMERIC;
+    static final int END = 4;
+
+    private CharSequence text = "";
+    private int position;
+    private int end;
+    private boolean expectComponent;
+    private boolean empty;
+    private boolean pendingDot;
+    private boolean canonical;
+
+    private int kind;
+    private long number;
+    private int wordStart;
+    private int wordEnd;
+
+    /**
+     * Prepares the lexer to walk the given range of characters.
+     *
+     * @param text  The text containing the version.
+     * @param start The index of the first character of the version.
+     * @param end   The index after the last character of the version.
+     * @return This lexer.
+     */
+    VersibleLexer reset(CharSequence text, int start, int end)
+    {
+        this.text = text;
+        this.position = start;
+        this.end = end;
+        this.expectComponent = true;
+        this.empty = true;
+        this.pendingDot = false;
+        this.canonical = true;
+        this.kind = END;
+        return this;
+    }
+
+    /**
+     * Prepares the lexer to walk the whole text.
+     *
+     * @param text The version string.
+     * @return This lexer.
+     */
+    VersibleLexer reset(CharSequence text)
+    {
+        return reset(text, 0, text.length());
+    }
+
+    /**
+     * Advances to the next component.
+     *
+     * @return The kind of the component, or {@link #END} if there are no more components.
+     * @throws IllegalArgumentException If the text is not a valid version, with the same conditions as {@link VersibleParser#parseVersion(String)}.
+     */
+    int next()
+    {
+        while (true)
+        {
+            if (position >= end)
+            {
+                if (empty)
+                    throw new IllegalArgumentException("Version string cannot be empty.");
+                if (pendingDot)
+                    canonical = false;
+                return kind = END;
+            }
+
+            char c = text.charAt(position);
+            if (Character.isDigit(c))
+            {
+                return scanNumber();
+            }
+            else if (Character.isLetter(c))
+            {
+                return scanWord();
+            }
+            else if (expectComponent)
+            {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at the start of a version component.");
+            }
+
+            position++;
+            expectComponent = true;
+            switch (c)
+            {
+                case '.':
+                    pendingDot = true;
+                    continue;
+                case '-':
+                    return kind = NEGATIVE;
+                case '+':
+                    return kind = POSITIVE;
+                default:
+                    throw new IllegalArgumentException("Unexpected character '" + c + "' in version component.");
+            }
+        }
+    }
+
+    private int scanNumber()
+    {
+        // A dot is only rendered between two numbers, and numbers are rendered without leading zeros
+        if (pendingDot && kind != NUMBER)
+            canonical = false;
+        if (text.charAt(position) == '0' && position + 1 < end && Character.isDigit(text.charAt(position + 1)))
+            canonical = false;
+        pendingDot = false;
+
+        long value = 0;
+        int start = position;
+        while (position < end)
+        {
+            char c = text.charAt(position);
+            if (!Character.isDigit(c))
+                break;
+            if (c > '9' || c < '0')
+                canonical = false;
+            int digit = Character.digit(c, 10);
+            if (value > (Long.MAX_VALUE - digit) / 10)
+                throw new IllegalArgumentException("The number " + text.subSequence(start, position + 1) + "... is out of range.");
+            value = value * 10 + digit;
+            position++;
+        }
+        number = value;
+        expectComponent = false;
+        empty = false;
+        return kind = NUMBER;
+    }
+
+    private int scanWord()
+    {
+        if (pendingDot && kind != WORD)
+            canonical = false;
+        pendingDot = false;
+
+        wordStart = position;
+        while (position < end && Character.isLetter(text.charAt(position)))
+            position++;
+        wordEnd = position;
+        expectComponent = false;
+        empty = false;
+        return kind = WORD;
+    }
+
+    /**
+     * Consumes the whole text, only checking that it is valid.
+     *
+     * @return {@code true} if the text is exactly what {@link VersibleVersion#toString()} would produce for it.
+     * @throws IllegalArgumentException If the text is not valid.
+     */
+    boolean validate()
+    {
+        next();
+        validateRest();
+        return canonical;
+    }
+
+    /**
+     * Consumes the remaining components, only checking that they are valid.
+     *
+     * @throws IllegalArgumentException If the remaining text is not valid.
+     */
+    void validateRest()
+    {
+        while (kind != END)
+            next();
+    }
+
+    /**
+     * Returns the kind of the current component.
+     */
+    int kind()
+    {
+        return kind;
+    }
+
+    /**
+     * Returns the value of the current numeric component.
+     */
+    long number()
+    {
+        return number;
+    }
+
+    /**
+     * Returns the text of the current alphabetic component. This allocates a string.
+     */
+    String word()
+    {
+        return text.subSequence(wordStart, wordEnd).toString();
+    }
+
+    /**
+     * Returns the index after the last character consumed so far.
+     */
+    int position()
+    {
+        return position;
+    }
+
+    /**
+     * Compares the current component with a parsed component, following the rules of {@link VersibleComponent}.
+     */
+    int compareTo(VersibleComponent component)
+    {
+        int otherKind = VersibleComponent.kindOf(component);
+        if (kind != otherKind)
+            return Integer.compare(kind, otherKind);
+        return switch (kind)
+        {
+            case NUMBER -> Long.compare(number, ((VersibleComponent.Numeric) component).number());
+            case WORD ->
+            {
+                var word = ((VersibleComponent.Alphabetic) component).word();
+                yield compareWords(text, wordStart, wordEnd, word, 0, word.length());
+            }
+            default -> 0;
+        };
+    }
+
+    /**
+     * Compares the current component with the current component of another lexer.
+     */
+    int compareTo(VersibleLexer other)
+    {
+        if (kind != other.kind)
+            return Integer.compare(kind, other.kind);
+        return switch (kind)
+        {
+            case NUMBER -> Long.compare(number, other.number);
+            case WORD -> compareWords(text, wordStart, wordEnd, other.text, other.wordStart, other.wordEnd);
+            default -> 0;
+        };
+    }
+
+    /**
+     * Compares two character ranges lexicographically, with the same result as {@link String#compareTo(String)}.
+     */
+    private static int compareWords(CharSequence a, int aStart, int aEnd, CharSequence b, int bStart, int bEnd)
+    {
+        int aLength = aEnd - aStart;
+        int bLength = bEnd - bStart;
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++)
+        {
+            char ca = a.charAt(aStart + i);
+            char cb = b.charAt(bStart + i);
+            if (ca != cb)
+                return ca - cb;
+        }
+        return aLength - bLength;
+    }
+
+    /**
+     * Compares the version remaining in this lexer against a parsed version, with the same result as {@link VersibleVersion#compareTo(VersibleVersion)}.
+     * The whole text is validated even when the result is decided early.
+     *
+     * @param version The version to compare against.
+     * @return A negative number, zero, or a positive number, if the text sorts before, equal, or after the version.
+     * @throws IllegalArgumentException If the text is not a valid version.
+     */
+    int compareRest(VersibleVersion version)
+    {
+        int size = version.size();
+        for (int i = 0; ; i++)
+        {
+            int current = next();
+            if (current == END)
+            {
+                if (i == size)
+                    return 0;
+                return isNegativeSuffix(version.get(i)) ? 1 : -1;
+            }
+            if (i == size)
+            {
+                validateRest();
+                return current == NEGATIVE ? -1 : 1;
+            }
+            int c = compareTo(version.get(i));
+            if (c != 0)
+            {
+                validateRest();
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Compares the version remaining in this lexer against the version remaining in another lexer,
+     * with the same result as parsing both and calling {@link VersibleVersion#compareTo(VersibleVersion)}.
+     * Both texts are validated even when the result is decided early.
+     *
+     * @param other The lexer to compare against.
+     * @return A negative number, zero, or a positive number, if this text sorts before, equal, or after the other.
+     * @throws IllegalArgumentException If either text is not a valid version.
+     */
+    int compareRest(VersibleLexer other)
+    {
+        while (true)
+        {
+            int a = next();
+            int b = other.next();
+            if (a == END || b == END)
+            {
+                int result;
+                if (a == b)
+                    result = 0;
+                else if (a == END)
+                    result = b == NEGATIVE ? 1 : -1;
+                else
+                    result = a == NEGATIVE ? -1 : 1;
+                validateRest();
+                other.validateRest();
+                return result;
+            }
+            int c = compareTo(other);
+            if (c != 0)
+            {
+                validateRest();
+                other.validateRest();
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Checks if a version string is contained in a range, with the same result as parsing it and calling {@link VersibleRange#contains(VersibleVersion)}.
+     *
+     * @param text  The version string.
+     * @param range The range to check against.
+     * @return {@code true} if the version is included.
+     * @throws IllegalArgumentException If the text is not a valid version.
+     */
+    boolean contains(CharSequence text, VersibleRange range)
+    {
+        var min = range.minVersion();
+        if (min != null)
+        {
+            int minComparison = reset(text).compareRest(min);
+            if (minComparison < 0 || (range.minExclusive() && minComparison == 0))
+                return false;
+        }
+
+        var max = range.maxVersion();
+        if (max != null)
+        {
+            int maxComparison = reset(text).compareRest(max);
+            if (maxComparison > 0 || (range.maxExclusive() && maxComparison == 0))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isNegativeSuffix(VersibleComponent component)
+    {
+        return VersibleComponent.kindOf(component) == NEGATIVE;
+    }
+}
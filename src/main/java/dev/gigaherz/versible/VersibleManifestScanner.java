@@ -0,0 +1,423 @@
+package dev.gigaherz.versible;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Extracts version and range fields from manifest files, such as {@code maven-metadata.xml}, {@code mods.toml} or JSON indexes,
+ * without building a document model.
+ * <p>
+ * The input is scanned as raw bytes for the configured fields, and each value is handed to {@link VersibleParser} as a region of the scan buffer,
+ * so no intermediate strings are created. Results are reported to a {@link Listener} as they are found, and memory use does not depend on the size of the input.
+ * <p>
+ * The scanner only recognizes the syntax needed to locate each field: it does not validate the rest of the document, and does not understand comments or escape sequences.
+ * Values must be ASCII; values containing other characters are reported as invalid. A scanner can be shared between threads.
+ */
+public class VersibleManifestScanner
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_MATCH_LENGTH = BUFFER_SIZE / 2;
+    private static final long MAP_WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private static final int NO_MATCH = -1;
+    private static final int NEED_MORE = -2;
+
+    /**
+     * The syntax used to locate the value of a field.
+     */
+    public enum Syntax
+    {
+        /**
+         * The text content of an XML element, such as {@code <version>1.0</version>}.
+         */
+        XML_ELEMENT,
+        /**
+         * A string property of a JSON object, such as {@code "version": "1.0"}.
+         */
+        JSON_STRING,
+        /**
+         * A basic string key of a TOML table, such as {@code version = "1.0"}.
+         */
+        TOML_STRING
+    }
+
+    /**
+     * Describes a field to extract.
+     *
+     * @param name   The name of the element, property or key.
+     * @param syntax The syntax of the field.
+     * @param range  Whether the value is a version range ({@code true}) or a version ({@code false}).
+     */
+    public record Field(String name, Syntax syntax, boolean range)
+    {
+        /**
+         * Returns a field containing a version.
+         *
+         * @param syntax The syntax of the field.
+         * @param name   The name of the element, property or key.
+         * @return The field description.
+         */
+        public static Field version(Syntax syntax, String name)
+        {
+            return new Field(name, syntax, false);
+        }
+
+        /**
+         * Returns a field containing a version range.
+         *
+         * @param syntax The syntax of the field.
+         * @param name   The name of the element, property or key.
+         * @return The field description.
+         */
+        public static Field range(Syntax syntax, String name)
+        {
+            return new Field(name, syntax, true);
+        }
+    }
+
+    /**
+     * Receives the values found by a scan. All methods do nothing by default.
+     */
+    public interface Listener
+    {
+        /**
+         * Called when a version field is found.
+         *
+         * @param field   The field.
+         * @param offset  The position of the first byte of the value in the input.
+         * @param version The parsed version.
+         */
+        default void version(Field field, long offset, VersibleVersion version)
+        {
+        }
+
+        /**
+         * Called when a range field is found.
+         *
+         * @param field  The field.
+         * @param offset The position of the first byte of the value in the input.
+         * @param range  The parsed range.
+         */
+        default void range(Field field, long offset, VersibleRange range)
+        {
+        }
+
+        /**
+         * Called when a field is found, but its value cannot be parsed.
+         *
+         * @param field     The field.
+         * @param offset    The position of the first byte of the value in the input.
+         * @param exception The parsing error.
+         */
+        default void invalid(Field field, long offset, IllegalArgumentException exception)
+        {
+        }
+    }
+
+    /**
+     * Returns a scanner for the given fields.
+     *
+     * @param fields The fields to extract.
+     * @return The scanner.
+     * @throws IllegalArgumentException If no fields are given.
+     */
+    public static VersibleManifestScanner of(Field... fields)
+    {
+        return new VersibleManifestScanner(List.of(fields));
+    }
+
+    private final Field[] fields;
+    private final byte[][] keys;
+    private final byte[][] separators;
+    private final byte[] terminators;
+    private final boolean[] startBytes = new boolean[256];
+
+    private VersibleManifestScanner(List<Field> fields)
+    {
+        if (fields.isEmpty())
+            throw new IllegalArgumentException("At least one field must be given.");
+        this.fields = fields.toArray(new Field[0]);
+        this.keys = new byte[this.fields.length][];
+        this.separators = new byte[this.fields.length][];
+        this.terminators = new byte[this.fields.length];
+        for (int i = 0; i < this.fields.length; i++)
+        {
+            var field = this.fields[i];
+            var key = switch (field.syntax())
+            {
+                case XML_ELEMENT -> "<" + field.name() + ">";
+                case JSON_STRING -> "\"" + field.name() + "\"";
+                case TOML_STRING -> field.name();
+            };
+            keys[i] = key.getBytes(StandardCharsets.UTF_8);
+            separators[i] = switch (field.syntax())
+            {
+                case XML_ELEMENT -> new byte[0];
+                case JSON_STRING -> new byte[]{':', '"'};
+                case TOML_STRING -> new byte[]{'=', '"'};
+            };
+            terminators[i] = (byte) (field.syntax() == Syntax.XML_ELEMENT ? '<' : '"');
+            startBytes[keys[i][0] & 0xFF] = true;
+        }
+    }
+
+    /**
+     * Scans a file, mapping it into memory instead of reading it into buffers.
+     *
+     * @param file     The file to scan.
+     * @param listener The listener to report values to.
+     * @throws IOException If the file cannot be read.
+     */
+    public void scan(Path file, Listener listener) throws IOException
+    {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            var scan = new Scan(listener);
+            long size = channel.size();
+            long windowStart = 0;
+            int from = 0;
+            while (windowStart < size)
+            {
+                long windowSize = Math.min(size - windowStart, MAP_WINDOW_SIZE);
+                boolean last = windowStart + windowSize == size;
+                var window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+
+                // Matches starting in the last MAX_MATCH_LENGTH bytes are left for the next window, which overlaps this one.
+                int stop = last ? (int) windowSize : (int) windowSize - MAX_MATCH_LENGTH;
+                int resume = scan.window(window, from, (int) windowSize, stop, true, windowStart);
+                if (last)
+                    break;
+
+                // Keep one byte before the resume point, so the next window can check the boundary of a match starting there.
+                windowStart += resume - 1;
+                from = 1;
+            }
+        }
+    }
+
+    /**
+     * Scans the contents of a channel, reading it through a fixed size buffer.
+     *
+     * @param channel  The channel to read from. It is read until the end of the stream, but not closed.
+     * @param listener The listener to report values to.
+     * @throws IOException If the channel cannot be read.
+     */
+    public void scan(ReadableByteChannel channel, Listener listener) throws IOException
+    {
+        var scan = new Scan(listener);
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long base = 0;
+        int from = 0;
+        boolean endOfInput = false;
+        while (!endOfInput)
+        {
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer) < 0)
+                {
+                    endOfInput = true;
+                    break;
+                }
+            }
+
+            int limit = buffer.position();
+            int resume = scan.window(buffer, from, limit, limit, endOfInput, base);
+            if (endOfInput)
+                break;
+
+            // Keep the pending match, if any, along with one byte before it to check its boundary.
+            int keep = Math.max(resume - 1, 0);
+            buffer.limit(limit).position(keep);
+            buffer.compact();
+            base += keep;
+            from = resume - keep;
+        }
+    }
+
+    /**
+     * The state of a single scan.
+     */
+    private final class Scan
+    {
+        private final Listener listener;
+        private final ByteSpan span = new ByteSpan();
+        private int valueStart;
+        private int valueEnd;
+
+        Scan(Listener listener)
+        {
+            this.listener = listener;
+        }
+
+        /**
+         * Scans {@code buffer[from, limit)} for fields starting before {@code stop}.
+         *
+         * @return The position of a match that needs more input to complete, or the position where the scan ended.
+         */
+        int window(ByteBuffer buffer, int from, int limit, int stop, boolean endOfInput, long base)
+        {
+            span.buffer = buffer;
+            span.length = limit;
+            int position = from;
+            outer:
+            while (position < stop)
+            {
+                int b = buffer.get(position) & 0xFF;
+                if (!startBytes[b])
+                {
+                    position++;
+                    continue;
+                }
+                for (int i = 0; i < fields.length; i++)
+                {
+                    int end = match(buffer, position, limit, i);
+                    if (end == NEED_MORE && !endOfInput)
+                        return position;
+                    if (end >= 0)
+                    {
+                        report(fields[i], base);
+                        position = end;
+                        continue outer;
+                    }
+                }
+                position++;
+            }
+            return position;
+        }
+
+        private void report(Field field, long base)
+        {
+            long offset = base + valueStart;
+            try
+            {
+                if (field.range())
+                    listener.range(field, offset, VersibleParser.parseRange(span, valueStart, valueEnd));
+                else
+                    listener.version(field, offset, VersibleParser.parseVersion(span, valueStart, valueEnd));
+            }
+            catch (IllegalArgumentException e)
+            {
+                listener.invalid(field, offset, e);
+            }
+        }
+
+        /**
+         * Attempts to match a field at the given position, storing the bounds of its value.
+         *
+         * @return The position after the match, {@link #NO_MATCH}, or {@link #NEED_MORE} if the input ended before the match could be decided.
+         */
+        private int match(ByteBuffer buffer, int position, int limit, int fieldIndex)
+        {
+            var key = keys[fieldIndex];
+            int maxEnd = Math.min(limit, position + MAX_MATCH_LENGTH);
+            if (isIdentifier(key[0]) && position > 0 && isIdentifier(buffer.get(position - 1)))
+                return NO_MATCH;
+
+            int i = position;
+            for (byte k : key)
+            {
+                if (i >= maxEnd)
+                    return needMore(maxEnd, limit);
+                if (buffer.get(i++) != k)
+                    return NO_MATCH;
+            }
+
+            for (byte separator : separators[fieldIndex])
+            {
+                i = skipWhitespace(buffer, i, maxEnd);
+                if (i >= maxEnd)
+                    return needMore(maxEnd, limit);
+                if (buffer.get(i++) != separator)
+                    return NO_MATCH;
+            }
+
+            i = skipWhitespace(buffer, i, maxEnd);
+            int start = i;
+            byte terminator = terminators[fieldIndex];
+            while (i < maxEnd && buffer.get(i) != terminator)
+                i++;
+            if (i >= maxEnd)
+                return needMore(maxEnd, limit);
+
+            int end = i;
+            while (end > start && isWhitespace(buffer.get(end - 1)))
+                end--;
+            valueStart = start;
+            valueEnd = end;
+            return i + 1;
+        }
+
+        private static int needMore(int maxEnd, int limit)
+        {
+            // A match that reached the length limit with input to spare will never complete.
+            return maxEnd < limit ? NO_MATCH : NEED_MORE;
+        }
+
+        private static int skipWhitespace(ByteBuffer buffer, int i, int end)
+        {
+            while (i < end && isWhitespace(buffer.get(i)))
+                i++;
+            return i;
+        }
+
+        private static boolean isWhitespace(byte b)
+        {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+
+        private static boolean isIdentifier(byte b)
+        {
+            return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_' || b == '-';
+        }
+    }
+
+    /**
+     * Presents the bytes of a buffer as characters, mapping non-ASCII bytes to a character that is never part of a version.
+     */
+    private static final class ByteSpan implements CharSequence
+    {
+        private static final char INVALID = '\uFFFD';
+
+        ByteBuffer buffer;
+        int offset;
+        int length;
+
+        @Override
+        public int length()
+        {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index)
+        {
+            byte b = buffer.get(offset + index);
+            return b >= 0 ? (char) b : INVALID;
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end)
+        {
+            var span = new ByteSpan();
+            span.buffer = buffer;
+            span.offset = offset + start;
+            span.length = end - start;
+            return span;
+        }
+
+        @Override
+        public String toString()
+        {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++)
+                chars[i] = charAt(i);
+            return new String(chars);
+        }
+    }
+}
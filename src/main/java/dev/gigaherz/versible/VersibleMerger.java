@@ -0,0 +1,185 @@
+package dev.gigaherz.versible;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Merges sorted sources of versions, such as the version lists of several repositories, into a single sorted and deduplicated sequence.
+ * This class cannot be instantiated.
+ * <p>
+ * The sources are merged lazily, through a heap holding the next version of each source, so producing the next entry costs {@code O(log k)}
+ * comparisons for {@code k} sources, and memory use does not depend on the length of the sources.
+ */
+public class VersibleMerger
+{
+    /**
+     * Merges sorted sources of versions.
+     * <p>
+     * Versions which compare as equal are reported once, tagged with every source they were found in. When equal versions have different
+     * text forms, such as {@code 1.0} and {@code 01.0}, the one from the source with the lowest index is reported.
+     *
+     * @param sources The sources, each one sorted in ascending order. They may contain duplicates.
+     * @return An iterator over the merged entries, in ascending order. Its methods throw {@link IllegalArgumentException} if a source is not sorted.
+     */
+    public static Iterator<Entry> merge(List<? extends Iterator<VersibleVersion>> sources)
+    {
+        return new Merger(sources);
+    }
+
+    /**
+     * Merges sorted sources of version strings, parsing each string as it is reached.
+     *
+     * @param sources The sources, each one sorted in ascending order. They may contain duplicates.
+     * @return An iterator over the merged entries, in ascending order. Its methods throw {@link IllegalArgumentException} if a source is not sorted,
+     * or if a string is not a valid version.
+     * @see #merge(List)
+     */
+    public static Iterator<Entry> mergeText(List<? extends Iterator<? extends CharSequence>> sources)
+    {
+        var parsed = new ArrayList<Iterator<VersibleVersion>>(sources.size());
+        for (var source : sources)
+        {
+            parsed.add(new Iterator<>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return source.hasNext();
+                }
+
+                @Override
+                public VersibleVersion next()
+                {
+                    var text = source.next();
+                    return text instanceof String string ? VersibleParser.parseVersion(string) : VersibleParser.parseVersion(text, 0, text.length());
+                }
+            });
+        }
+        return new Merger(parsed);
+    }
+
+    /**
+     * Merges sorted streams of versions. Closing the returned stream closes every source.
+     *
+     * @param sources The sources, each one sorted in ascending order. They may contain duplicates.
+     * @return A sequential stream of the merged entries, in ascending order. It throws {@link IllegalArgumentException} if a source is not sorted.
+     * @see #merge(List)
+     */
+    public static Stream<Entry> mergeStreams(List<? extends Stream<VersibleVersion>> sources)
+    {
+        var iterators = new ArrayList<Iterator<VersibleVersion>>(sources.size());
+        for (var source : sources)
+            iterators.add(source.iterator());
+        var spliterator = Spliterators.spliteratorUnknownSize(new Merger(iterators), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> sources.forEach(Stream::close));
+    }
+
+    /**
+     * A version in the merged sequence.
+     *
+     * @param version The version.
+     * @param sources The indices of the sources containing the version, in ascending order.
+     */
+    public record Entry(VersibleVersion version, List<Integer> sources)
+    {
+        /**
+         * Checks if the version was found in a source.
+         *
+         * @param source The index of the source.
+         * @return {@code true} if the source contains the version.
+         */
+        public boolean foundIn(int source)
+        {
+            return Collections.binarySearch(sources, source) >= 0;
+        }
+    }
+
+    private static final class Merger implements Iterator<Entry>
+    {
+        // Ties are broken by source index, so equal versions come out in source order
+        private final PriorityQueue<Head> heap = new PriorityQueue<>((a, b) ->
+        {
+            int c = a.version.compareTo(b.version);
+            return c != 0 ? c : Integer.compare(a.source, b.source);
+        });
+
+        Merger(List<? extends Iterator<VersibleVersion>> sources)
+        {
+            for (int i = 0; i < sources.size(); i++)
+            {
+                var iterator = sources.get(i);
+                if (iterator.hasNext())
+                {
+                    var head = new Head(i, iterator);
+                    head.version = iterator.next();
+                    heap.add(head);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public Entry next()
+        {
+            var head = heap.poll();
+            if (head == null)
+                throw new NoSuchElementException();
+            var version = head.version;
+            List<Integer> sources = new ArrayList<>(1);
+            sources.add(head.source);
+            advance(head);
+
+            while (!heap.isEmpty() && heap.peek().version.compareTo(version) == 0)
+            {
+                var other = heap.poll();
+                // A source re-enters the heap in the same position it left it, so its duplicates are adjacent
+                if (sources.get(sources.size() - 1) != other.source)
+                    sources.add(other.source);
+                advance(other);
+            }
+            return new Entry(version, Collections.unmodifiableList(sources));
+        }
+
+        private void advance(Head head)
+        {
+            if (!head.iterator.hasNext())
+                return;
+            var previous = head.version;
+            head.version = head.iterator.next();
+            if (head.version.compareTo(previous) < 0)
+                throw new IllegalArgumentException("Source " + head.source + " must be sorted in ascending order, but " + head.version + " came after " + previous + ".");
+            heap.add(head);
+        }
+    }
+
+    private static final class Head
+    {
+        private final int source;
+        private final Iterator<VersibleVersion> iterator;
+        private VersibleVersion version;
+
+        Head(int source, Iterator<VersibleVersion> iterator)
+        {
+            this.source = source;
+            this.iterator = iterator;
+        }
+    }
+
+    private VersibleMerger()
+    {
+        throw new IllegalArgumentException("This class cannot be instantiated.");
+    }
+}
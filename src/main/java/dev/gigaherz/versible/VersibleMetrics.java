@@ -0,0 +1,110 @@
+package dev.gigaherz.versible;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only view over the counters maintained by the library.
+ * <p>
+ * Counters are always on and cost a single {@link java.util.concurrent.atomic.LongAdder} increment each,
+ * so they can be polled from production telemetry without attaching a profiler.
+ * Timing information is not recorded here; it is available through the JDK Flight Recorder events
+ * in the {@code Versible} category, which cost nothing while no recording is active.
+ */
+public interface VersibleMetrics
+{
+    /**
+     * The number of successful {@link VersibleParser#parseVersion(String)} calls.
+     */
+    String VERSIONS_PARSED = "versions.parsed";
+
+    /**
+     * The number of failed {@link VersibleParser#parseVersion(String)} calls.
+     */
+    String VERSION_PARSE_FAILURES = "versions.failed";
+
+    /**
+     * The number of successful {@link VersibleParser#parseRange(String)} calls.
+     */
+    String RANGES_PARSED = "ranges.parsed";
+
+    /**
+     * The number of failed {@link VersibleParser#parseRange(String)} calls.
+     */
+    String RANGE_PARSE_FAILURES = "ranges.failed";
+
+    /**
+     * Returns the metrics shared by the whole library.
+     *
+     * @return The global metrics instance.
+     */
+    static VersibleMetrics global()
+    {
+        return VersibleMetricsRegistry.INSTANCE;
+    }
+
+    /**
+     * Returns the name of the counter that tracks hits for the given cache.
+     *
+     * @param cache The name of the cache.
+     * @return The counter name.
+     */
+    static String cacheHits(String cache)
+    {
+        return "cache." + cache + ".hits";
+    }
+
+    /**
+     * Returns the name of the counter that tracks misses for the given cache.
+     *
+     * @param cache The name of the cache.
+     * @return The counter name.
+     */
+    static String cacheMisses(String cache)
+    {
+        return "cache." + cache + ".misses";
+    }
+
+    /**
+     * Returns the name of the counter that tracks how many {@link VersibleQuery} queries used the given strategy.
+     *
+     * @param strategy The strategy.
+     * @return The counter name.
+     */
+    static String queries(VersibleQuery.Strategy strategy)
+    {
+        return "query." + strategy.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the current value of a counter.
+     *
+     * @param counter The name of the counter.
+     * @return The value of the counter, or zero if no such counter has been registered.
+     */
+    long count(String counter);
+
+    /**
+     * Returns the current value of every registered counter.
+     *
+     * @return An immutable map from counter name to value.
+     */
+    Map<String, Long> snapshot();
+
+    /**
+     * Returns the most frequently parsed range strings, most frequent first. Failed parses are not counted.
+     * Frequencies are estimated in bounded memory, from a random sample of the parses, and decay over time so that they follow recent parses:
+     * counts are approximate, and strings parsed only a few times may be missing. A bounded number of strings with the highest counts is tracked,
+     * so a string which becomes frequent later replaces a less frequent one.
+     *
+     * @param limit The maximum number of entries to return.
+     * @return An immutable list of range strings and their estimated parse counts.
+     */
+    List<Map.Entry<String, Long>> hotConstraints(int limit);
+
+    /**
+     * Resets every counter to zero and forgets the tracked constraints.
+     */
+    void reset();
+}
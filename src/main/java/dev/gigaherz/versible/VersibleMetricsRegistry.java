@@ -0,0 +1,196 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link LongAdder} based implementation of {@link VersibleMetrics}.
+ * <p>
+ * Range strings are counted in a count-min sketch: a few rows of counters, each indexed by a different hash of the string,
+ * whose minimum over the rows estimates the frequency of the string. To keep parsing cheap and avoid every thread contending on the counters
+ * of a hot string, only one parse in {@value #SAMPLE_RATE}, chosen at random, updates the sketch, and estimates are scaled back up when reported.
+ * Every {@value #AGING_PERIOD} sampled updates, all the counters are halved, so the counts follow recent parses and never overflow.
+ * <p>
+ * The strings with the highest estimates are tracked in a bounded set of slots. A string joins it once its estimate exceeds the lowest estimate
+ * among the next {@value #EVICTION_SAMPLE} slots, replacing that string, so each admission only looks at a few slots,
+ * and the slots are swept over successive admissions.
+ */
+final class VersibleMetricsRegistry implements VersibleMetrics
+{
+    static final VersibleMetricsRegistry INSTANCE = new VersibleMetricsRegistry();
+
+    private static final int MAX_TRACKED_CONSTRAINTS = 1024;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int SAMPLE_RATE = 16;
+    private static final int AGING_PERIOD = 10 * SKETCH_WIDTH;
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final AtomicLongArray sketch = new AtomicLongArray(SKETCH_DEPTH * SKETCH_WIDTH);
+    private final AtomicLong sampledUpdates = new AtomicLong();
+    private final Set<String> constraints = ConcurrentHashMap.newKeySet();
+    // The tracked constraints, in the order the eviction hand visits them. Guarded by this.
+    private final String[] slots = new String[MAX_TRACKED_CONSTRAINTS];
+    private int hand;
+    /**
+     * The lowest estimate found by the last eviction, which an untracked constraint must exceed to attempt joining the set.
+     */
+    private volatile long admission;
+
+    private final LongAdder versionsParsed = counter(VERSIONS_PARSED);
+    private final LongAdder versionParseFailures = counter(VERSION_PARSE_FAILURES);
+    private final LongAdder rangesParsed = counter(RANGES_PARSED);
+    private final LongAdder rangeParseFailures = counter(RANGE_PARSE_FAILURES);
+
+    /**
+     * Returns the counter with the given name, registering it if needed.
+     * Callers on hot paths should look the counter up once and keep the reference.
+     */
+    LongAdder counter(String name)
+    {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    void versionParsed(boolean success)
+    {
+        (success ? versionsParsed : versionParseFailures).increment();
+    }
+
+    /**
+     * Records a range parse. Constraint frequency is only sampled from successful parses, when the source string is available.
+     */
+    void rangeParsed(@Nullable String range, boolean success)
+    {
+        (success ? rangesParsed : rangeParseFailures).increment();
+        if (range == null || !success || ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0)
+            return;
+
+        int hash = range.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++)
+            estimate = Math.min(estimate, sketch.incrementAndGet(slot(hash, row)));
+        if (estimate > admission && !constraints.contains(range))
+            admit(range, estimate);
+        if (sampledUpdates.incrementAndGet() % AGING_PERIOD == 0)
+            age();
+    }
+
+    private synchronized void admit(String range, long estimate)
+    {
+        if (constraints.contains(range))
+            return;
+        int size = constraints.size();
+        if (size < MAX_TRACKED_CONSTRAINTS)
+        {
+            slots[size] = range;
+            constraints.add(range);
+            return;
+        }
+
+        int lowest = hand;
+        long lowestEstimate = Long.MAX_VALUE;
+        for (int i = 0; i < EVICTION_SAMPLE; i++)
+        {
+            int slot = (hand + i) % MAX_TRACKED_CONSTRAINTS;
+            long e = estimate(slots[slot]);
+            if (e < lowestEstimate)
+            {
+                lowest = slot;
+                lowestEstimate = e;
+            }
+        }
+        hand = (hand + EVICTION_SAMPLE) % MAX_TRACKED_CONSTRAINTS;
+        admission = lowestEstimate;
+        // The estimates of the tracked constraints may have grown since the admission threshold was computed
+        if (estimate <= lowestEstimate)
+            return;
+        constraints.remove(slots[lowest]);
+        slots[lowest] = range;
+        constraints.add(range);
+    }
+
+    /**
+     * Halves every counter of the sketch. Increments made concurrently may be halved or not, which only affects the estimates slightly.
+     */
+    private synchronized void age()
+    {
+        for (int i = 0; i < sketch.length(); i++)
+            sketch.updateAndGet(i, v -> v >>> 1);
+        admission >>>= 1;
+    }
+
+    private long estimate(String range)
+    {
+        int hash = range.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++)
+            estimate = Math.min(estimate, sketch.get(slot(hash, row)));
+        return estimate;
+    }
+
+    /**
+     * Returns the index of the counter of a hash in a row of the sketch, mixing the hash differently for each row.
+     */
+    private static int slot(int hash, int row)
+    {
+        int h = (hash ^ (row * 0x9e3779b9)) * 0x85ebca6b;
+        h ^= h >>> 15;
+        return row * SKETCH_WIDTH + (h & (SKETCH_WIDTH - 1));
+    }
+
+    @Override
+    public long count(String counter)
+    {
+        var adder = counters.get(counter);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Override
+    public Map<String, Long> snapshot()
+    {
+        return counters.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+
+    @Override
+    public List<Map.Entry<String, Long>> hotConstraints(int limit)
+    {
+        return constraints.stream()
+                .map(constraint -> Map.entry(constraint, estimate(constraint) * SAMPLE_RATE))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void reset()
+    {
+        counters.values().forEach(LongAdder::reset);
+        synchronized (this)
+        {
+            constraints.clear();
+            Arrays.fill(slots, null);
+            hand = 0;
+            for (int i = 0; i < sketch.length(); i++)
+                sketch.set(i, 0);
+            sampledUpdates.set(0);
+            admission = 0;
+        }
+    }
+
+    private VersibleMetricsRegistry()
+    {
+    }
+}
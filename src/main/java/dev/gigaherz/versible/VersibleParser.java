@@ -6,6 +6,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Utilities for parsing versions and ranges. This class cannot be instantiated.
@@ -46,6 +47,49 @@ public class VersibleParser
      * @throws IllegalArgumentException If the string cannot be converted into a valid range.
      */
     public static VersibleRange parseRange(String range)
+    {
+        return parseRange(range, 0, range.length());
+    }
+
+    /**
+     * Parses a version range from a region of a character sequence, without copying the region into a string first.
+     * The whole region must contain the range, with no leading or trailing characters.
+     *
+     * @param range The character sequence containing the range to be parsed.
+     * @param start The index of the first character of the range.
+     * @param end   The index after the last character of the range.
+     * @return The range representing the given region.
+     * @throws IllegalArgumentException  If the region cannot be converted into a valid range.
+     * @throws IndexOutOfBoundsException If the region is out of bounds.
+     * @see #parseRange(String)
+     */
+    public static VersibleRange parseRange(CharSequence range, int start, int end)
+    {
+        Objects.checkFromToIndex(start, end, range.length());
+        var event = new VersibleEvents.ParseRange();
+        event.begin();
+        boolean success = false;
+        try
+        {
+            var result = parseRangeInternal(range, start, end);
+            success = true;
+            return result;
+        }
+        finally
+        {
+            var whole = range instanceof String s && start == 0 && end == s.length() ? s : null;
+            VersibleMetricsRegistry.INSTANCE.rangeParsed(whole, success);
+            if (event.shouldCommit())
+            {
+                event.range = range.subSequence(start, end).toString();
+                event.inputLength = end - start;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    private static VersibleRange parseRangeInternal(CharSequence range, int start, int end)
     {
         int state = 0;
         VersibleVersion minVersion = null;
@@ -53,7 +97,7 @@ public class VersibleParser
         boolean minExclusive = false;
         boolean maxExclusive = false;
         loop:
-        for (int i = 0; i < range.length(); i++)
+        for (int i = start; i < end; i++)
         {
             var c = range.charAt(i);
             switch (state)
@@ -62,17 +106,17 @@ public class VersibleParser
                     if (Character.isLetterOrDigit(c))
                     {
                         int[] endIndex = {0};
-                        minVersion = parseVersionInternal(range, i, range.length(), endIndex);
+                        minVersion = parseVersionInternal(range, i, end, endIndex);
                         maxVersion = minVersion.append(0, '-');
                         i = endIndex[0];
-                        if (i < range.length())
+                        if (i < end)
                         {
                             c = range.charAt(i);
                             if (c == '.')
                             {
                                 i++;
 
-                                if (i >= range.length())
+                                if (i >= end)
                                 {
                                     throw new IllegalArgumentException("Unexpected end of string in version pattern.");
                                 }
@@ -87,7 +131,7 @@ public class VersibleParser
                                     maxExclusive = true;
 
                                     i++;
-                                    if (i < range.length())
+                                    if (i < end)
                                     {
                                         c = range.charAt(i);
 
@@ -143,9 +187,9 @@ public class VersibleParser
                     if (Character.isLetterOrDigit(c))
                     {
                         int[] endIndex = {0};
-                        var v = parseVersionInternal(range, i, range.length(), endIndex);
+                        var v = parseVersionInternal(range, i, end, endIndex);
                         i = endIndex[0];
-                        if (i < range.length())
+                        if (i < end)
                         {
                             c = range.charAt(i);
                             throw new IllegalArgumentException("Unexpected character '" + c + "' in version component.");
@@ -187,10 +231,10 @@ public class VersibleParser
                     if (Character.isLetterOrDigit(c))
                     {
                         int[] endIndex = {0};
-                        minVersion = parseVersionInternal(range, i, range.length(), endIndex);
+                        minVersion = parseVersionInternal(range, i, end, endIndex);
                         i = endIndex[0];
 
-                        if (i >= range.length())
+                        if (i >= end)
                         {
                             throw new IllegalArgumentException("Unexpected end of string in version interval.");
                         }
@@ -200,7 +244,7 @@ public class VersibleParser
                         if (c == ',')
                         {
                             i++;
-                            if (i >= range.length())
+                            if (i >= end)
                             {
                                 throw new IllegalArgumentException("Unexpected end of string in version interval.");
                             }
@@ -208,10 +252,10 @@ public class VersibleParser
 
                             if (Character.isLetterOrDigit(c))
                             {
-                                maxVersion = parseVersionInternal(range, i, range.length(), endIndex);
+                                maxVersion = parseVersionInternal(range, i, end, endIndex);
                                 i = endIndex[0];
 
-                                if (i >= range.length())
+                                if (i >= end)
                                 {
                                     throw new IllegalArgumentException("Unexpected end of string in version interval.");
                                 }
@@ -234,7 +278,7 @@ public class VersibleParser
                         }
 
                         i++;
-                        if (i < range.length())
+                        if (i < end)
                         {
                             c = range.charAt(i);
                             throw new IllegalArgumentException("Unexpected character '" + c + "' after version interval.");
@@ -245,10 +289,10 @@ public class VersibleParser
                     else if (c == ',')
                     {
                         int[] endIndex = {0};
-                        maxVersion = parseVersionInternal(range, i + 1, range.length(), endIndex);
+                        maxVersion = parseVersionInternal(range, i + 1, end, endIndex);
                         i = endIndex[0];
 
-                        if (i >= range.length())
+                        if (i >= end)
                         {
                             throw new IllegalArgumentException("Unexpected end of string in version interval.");
                         }
@@ -265,7 +309,7 @@ public class VersibleParser
                         }
 
                         i++;
-                        if (i < range.length())
+                        if (i < end)
                         {
                             c = range.charAt(i);
                             throw new IllegalArgumentException("Unexpected character '" + c + "' after version interval.");
@@ -313,7 +357,85 @@ public class VersibleParser
     @NotNull
     public static VersibleVersion parseVersion(String version)
     {
-        return parseVersionInternal(version, 0, version.length(), null);
+        return parseVersion(version, 0, version.length());
+    }
+
+    /**
+     * Parses a version from a region of a character sequence, without copying the region into a string first.
+     * The whole region must contain the version, with no leading or trailing characters.
+     *
+     * @param version The character sequence containing the version to be parsed.
+     * @param start   The index of the first character of the version.
+     * @param end     The index after the last character of the version.
+     * @return The version representing the given region.
+     * @throws IllegalArgumentException  If the region cannot be converted into a valid version.
+     * @throws IndexOutOfBoundsException If the region is out of bounds.
+     * @see #parseVersion(String)
+     */
+    @NotNull
+    public static VersibleVersion parseVersion(CharSequence version, int start, int end)
+    {
+        return parseVersion(version, start, end, false);
+    }
+
+    /**
+     * Checks that a string is a valid version, and returns a version that keeps only the string until its components are first accessed.
+     * <p>
+     * Validation does not build any components, so versions which are only stored and forwarded cost little more than their string.
+     * The components are parsed on the first call that needs them, such as {@link VersibleVersion#get(int)}, {@link VersibleVersion#size()},
+     * {@link VersibleVersion#compareTo(VersibleVersion)} or {@link VersibleVersion#equals(Object)}, and are cached for later calls.
+     * Lazy versions can be shared between threads.
+     *
+     * @param version The string containing the version to be parsed.
+     * @return The version representing the given string.
+     * @throws IllegalArgumentException If the string cannot be converted into a valid version.
+     * @see #parseVersion(String)
+     */
+    @NotNull
+    public static VersibleVersion parseVersionLazy(String version)
+    {
+        return parseVersion(version, 0, version.length(), true);
+    }
+
+    /**
+     * Parses the components of an already validated version string.
+     */
+    static List<VersibleComponent> parseComponents(String version)
+    {
+        return parseVersionInternal(version, 0, version.length(), null).components();
+    }
+
+    private static VersibleVersion parseVersion(CharSequence version, int start, int end, boolean lazy)
+    {
+        Objects.checkFromToIndex(start, end, version.length());
+        var event = new VersibleEvents.ParseVersion();
+        event.begin();
+        boolean success = false;
+        try
+        {
+            VersibleVersion result;
+            if (lazy)
+            {
+                boolean canonical = new VersibleLexer().reset(version, start, end).validate();
+                result = new VersibleVersion(VersibleComponentLists.lazy(version.toString(), canonical));
+            }
+            else
+            {
+                result = parseVersionInternal(version, start, end, null);
+            }
+            success = true;
+            return result;
+        }
+        finally
+        {
+            VersibleMetricsRegistry.INSTANCE.versionParsed(success);
+            if (event.shouldCommit())
+            {
+                event.inputLength = end - start;
+                event.success = success;
+                event.commit();
+            }
+        }
     }
 
     @NotNull
@@ -322,7 +444,7 @@ public class VersibleParser
         List<VersibleComponent> components = new ArrayList<>();
         int state = 0;
         int wordStart = start;
-        int lastGood = 0;
+        int lastGood = start;
         int i;
         loop:
         for (i = start; i < end; i++)
@@ -372,6 +494,7 @@ public class VersibleParser
                         {
                             state = 2;
                             wordStart = i;
+                            lastGood = i + 1;
                         }
                         else if (c == '.')
                         {
@@ -417,6 +540,7 @@ public class VersibleParser
                         {
                             state = 1;
                             wordStart = i;
+                            lastGood = i + 1;
                         }
                         else if (c == '.')
                         {
@@ -471,6 +595,12 @@ public class VersibleParser
 
         if (outIndex != null)
             outIndex[0] = lastGood;
+
+        // Keep the original text if it is what toString() would produce, so it never needs to be rendered again.
+        // Only a string holding exactly the version is kept, since keeping part of a larger one would need a copy, such as the bounds of a range.
+        int textEnd = outIndex != null ? lastGood : end;
+        if (version instanceof String s && start == 0 && textEnd == s.length() && VersibleVersion.rendersAs(components, s, start, textEnd))
+            return new VersibleVersion(VersibleComponentLists.withSource(components, s));
         return new VersibleVersion(Collections.unmodifiableList(components));
     }
 
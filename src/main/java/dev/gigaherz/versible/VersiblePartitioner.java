@@ -0,0 +1,151 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the version space into contiguous shards, each one owning a {@link VersibleRange} of versions.
+ * <p>
+ * Shard {@code 0} owns every version below the first boundary, shard {@code i} owns the versions between boundary {@code i - 1} (inclusive)
+ * and boundary {@code i} (exclusive), and the last shard owns every version at or above the last boundary.
+ * Routing a version or a range to its shards is a binary search over the boundaries. Instances are immutable.
+ */
+public class VersiblePartitioner
+{
+    private final VersibleVersion[] boundaries;
+
+    /**
+     * Returns a partitioner that splits a sample of versions into shards of roughly equal population,
+     * by placing the boundaries at the quantiles of the sample.
+     * <p>
+     * If the sample does not contain enough distinct versions, fewer shards than requested are produced.
+     *
+     * @param sample A sample of the versions to be partitioned. It does not need to be sorted, and can contain duplicates.
+     * @param shards The desired number of shards.
+     * @return The partitioner.
+     * @throws IllegalArgumentException If the number of shards is less than one.
+     */
+    public static VersiblePartitioner fromSample(Collection<VersibleVersion> sample, int shards)
+    {
+        if (shards < 1)
+            throw new IllegalArgumentException("The number of shards must be at least one.");
+        var sorted = sample.toArray(new VersibleVersion[0]);
+        Arrays.sort(sorted);
+
+        List<VersibleVersion> boundaries = new ArrayList<>(shards - 1);
+        for (int i = 1; i < shards && sorted.length > 0; i++)
+        {
+            var candidate = sorted[(int) ((long) i * sorted.length / shards)];
+            if (boundaries.isEmpty() ? candidate.compareTo(sorted[0]) > 0 : candidate.compareTo(boundaries.get(boundaries.size() - 1)) > 0)
+                boundaries.add(candidate);
+        }
+        return new VersiblePartitioner(boundaries.toArray(new VersibleVersion[0]));
+    }
+
+    /**
+     * Returns a partitioner with the given boundaries, such as the ones previously obtained from {@link #boundaries()}.
+     *
+     * @param boundaries The boundaries between shards, in strictly ascending order.
+     * @return The partitioner.
+     * @throws IllegalArgumentException If the boundaries are not in strictly ascending order.
+     */
+    public static VersiblePartitioner of(List<VersibleVersion> boundaries)
+    {
+        var array = boundaries.toArray(new VersibleVersion[0]);
+        for (int i = 1; i < array.length; i++)
+        {
+            if (array[i - 1].compareTo(array[i]) >= 0)
+                throw new IllegalArgumentException("The boundaries must be in strictly ascending order.");
+        }
+        return new VersiblePartitioner(array);
+    }
+
+    private VersiblePartitioner(VersibleVersion[] boundaries)
+    {
+        this.boundaries = boundaries;
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int shards()
+    {
+        return boundaries.length + 1;
+    }
+
+    /**
+     * Returns the boundaries between shards.
+     *
+     * @return An immutable list of versions in ascending order, with one element less than the number of shards.
+     */
+    public List<VersibleVersion> boundaries()
+    {
+        return List.of(boundaries);
+    }
+
+    /**
+     * Returns the shard that owns a version.
+     *
+     * @param version The version to route.
+     * @return The index of the shard.
+     */
+    public int shardOf(VersibleVersion version)
+    {
+        return countAtMost(version);
+    }
+
+    /**
+     * Returns the shards that own versions contained in a range, so that a query for the range can be fanned out to them.
+     *
+     * @param range The range to route.
+     * @return The indices of the shards, in ascending order. Empty if no shard can contain versions in the range.
+     */
+    public IntStream shardsFor(VersibleRange range)
+    {
+        var min = range.minVersion();
+        var max = range.maxVersion();
+        int first = min != null ? countAtMost(min) : 0;
+        int last = max != null ? (range.maxExclusive() ? countLessThan(max) : countAtMost(max)) : boundaries.length;
+        return IntStream.rangeClosed(first, last);
+    }
+
+    /**
+     * Returns the range of versions owned by a shard.
+     *
+     * @param shard The index of the shard.
+     * @return The range owned by the shard, or {@code null} if there is a single shard which owns every version.
+     * @throws IndexOutOfBoundsException If the shard index is out of range.
+     */
+    @Nullable
+    public VersibleRange rangeOf(int shard)
+    {
+        if (shard < 0 || shard > boundaries.length)
+            throw new IndexOutOfBoundsException("Shard " + shard + " out of bounds for " + shards() + " shards");
+        if (boundaries.length == 0)
+            return null;
+        if (shard == 0)
+            return VersibleRange.lessThan(boundaries[0]);
+        if (shard == boundaries.length)
+            return VersibleRange.atLeast(boundaries[shard - 1]);
+        return VersibleRange.betweenClosedOpen(boundaries[shard - 1], boundaries[shard]);
+    }
+
+    private int countAtMost(VersibleVersion version)
+    {
+        int index = Arrays.binarySearch(boundaries, version);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+
+    private int countLessThan(VersibleVersion version)
+    {
+        int index = Arrays.binarySearch(boundaries, version);
+        return index >= 0 ? index : -(index + 1);
+    }
+}
@@ -0,0 +1,223 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Canonicalizes versions and ranges, so that structurally equal values share a single instance.
+ * <p>
+ * Interned versions store their hash code, so using them as map keys no longer walks their components, and equality checks between them
+ * are decided by identity or by the stored hash in almost every case. Interned ranges are built from interned versions, so their hash code
+ * is combined from the hashes stored in their bounds, without walking any components.
+ * <p>
+ * The pool only holds its instances weakly: once no longer referenced elsewhere, they are reclaimed by the garbage collector.
+ * Lookups are tracked in the {@value #VERSIONS} and {@value #RANGES} {@link VersibleMetrics#cacheHits(String) cache counters},
+ * and reported as cache lookup events. A pool can be shared between threads.
+ */
+public class VersiblePool
+{
+    /**
+     * The cache name used in metrics and events for version lookups.
+     */
+    public static final String VERSIONS = "pool.versions";
+
+    /**
+     * The cache name used in metrics and events for range lookups.
+     */
+    public static final String RANGES = "pool.ranges";
+
+    private final Interner<VersibleVersion> versions = new Interner<>(VERSIONS);
+    private final Interner<VersibleRange> ranges = new Interner<>(RANGES);
+
+    /**
+     * Returns the canonical instance of a version.
+     *
+     * @param version The version.
+     * @return The instance in the pool equal to the given version, which is added to the pool if there is none.
+     */
+    public VersibleVersion intern(VersibleVersion version)
+    {
+        return versions.intern(version, v -> new VersibleVersion(VersibleComponentLists.hashed(v.components())));
+    }
+
+    /**
+     * Returns the canonical instance of a range.
+     *
+     * @param range The range.
+     * @return The instance in the pool equal to the given range, which is added to the pool if there is none.
+     */
+    public VersibleRange intern(VersibleRange range)
+    {
+        return ranges.intern(range, r -> new VersibleRange(internOrNull(r.minVersion()), r.minExclusive(), internOrNull(r.maxVersion()), r.maxExclusive()));
+    }
+
+    @Nullable
+    private VersibleVersion internOrNull(@Nullable VersibleVersion version)
+    {
+        return version != null ? intern(version) : null;
+    }
+
+    /**
+     * Returns the number of values in the pool. Values that were reclaimed, but not yet removed, may still be counted.
+     *
+     * @return The number of versions and ranges in the pool.
+     */
+    public int size()
+    {
+        versions.expunge();
+        ranges.expunge();
+        return versions.map.size() + ranges.map.size();
+    }
+
+    /**
+     * Adds the size of the pool to a footprint. The pooled values are only held weakly, but they are counted,
+     * since they are reachable from wherever they were handed out while they remain in the pool.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        footprint.object(2 * VersibleFootprint.REFERENCE);
+        versions.measureTo(footprint);
+        ranges.measureTo(footprint);
+    }
+
+    /**
+     * A weak, concurrent set of canonical instances.
+     */
+    private static final class Interner<T>
+    {
+        private final ConcurrentHashMap<Key, Ref<T>> map = new ConcurrentHashMap<>();
+        private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+        private final String name;
+        private final LongAdder hits;
+        private final LongAdder misses;
+
+        Interner(String name)
+        {
+            this.name = name;
+            this.hits = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheHits(name));
+            this.misses = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheMisses(name));
+        }
+
+        T intern(T value, UnaryOperator<T> canonicalize)
+        {
+            var event = new VersibleEvents.CacheLookup();
+            event.begin();
+            expunge();
+
+            var existing = map.get(new Lookup(value));
+            T canonical = existing != null ? existing.get() : null;
+            boolean hit = canonical != null;
+            if (!hit)
+            {
+                var created = canonicalize.apply(value);
+                var ref = new Ref<>(created, queue);
+                while (true)
+                {
+                    var prior = map.putIfAbsent(ref, ref);
+                    if (prior == null)
+                    {
+                        canonical = created;
+                        break;
+                    }
+                    canonical = prior.get();
+                    if (canonical != null)
+                        break;
+                    // The previous instance was reclaimed but not yet expunged
+                    map.remove(prior, prior);
+                }
+            }
+
+            (hit ? hits : misses).increment();
+            VersibleEvents.cacheLookup(event, name, hit);
+            return canonical;
+        }
+
+        void expunge()
+        {
+            Object ref;
+            while ((ref = queue.poll()) != null)
+                map.remove(ref, ref);
+        }
+
+        void measureTo(VersibleFootprint footprint)
+        {
+            footprint.object(5 * VersibleFootprint.REFERENCE);
+            footprint.table(map.size());
+            for (var ref : map.values())
+            {
+                // The referent, queue, next and discovered fields of the reference, plus the stored hash
+                footprint.object(4 * VersibleFootprint.REFERENCE + Integer.BYTES);
+                footprint.add(ref.get());
+            }
+        }
+    }
+
+    /**
+     * A map key which compares the values it holds.
+     */
+    private interface Key
+    {
+        @Nullable
+        Object value();
+
+        static boolean equals(Key self, Object other)
+        {
+            if (self == other)
+                return true;
+            if (!(other instanceof Key key) || self.hashCode() != key.hashCode())
+                return false;
+            var value = self.value();
+            return value != null && value.equals(key.value());
+        }
+    }
+
+    private record Lookup(Object value) implements Key
+    {
+        @Override
+        public boolean equals(Object o)
+        {
+            return Key.equals(this, o);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return value.hashCode();
+        }
+    }
+
+    private static final class Ref<T> extends WeakReference<T> implements Key
+    {
+        private final int hash;
+
+        Ref(T value, ReferenceQueue<T> queue)
+        {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Nullable
+        @Override
+        public Object value()
+        {
+            return get();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return Key.equals(this, o);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers range queries over a collection of versions, choosing how to evaluate them from statistics about the collection and its use.
+ * <p>
+ * Small collections are always scanned linearly, since any index would cost more than it saves. Larger collections start with a linear scan,
+ * move to a {@link VersibleColumns columnar filter} after a few queries if most of their versions are numeric, and build a sorted index
+ * once enough queries were made to pay for sorting, that is, once the number of queries reaches the base 2 logarithm of the size.
+ * Collections which are already sorted use them as the index from the start.
+ * <p>
+ * Every change of strategy is recorded as a {@link Decision}, and the number of queries answered by each strategy is tracked in the
+ * {@link VersibleMetrics#queries(Strategy) query counters}, so the thresholds can be tuned for a workload. Instances can be shared between threads.
+ */
+public class VersibleQuery
+{
+    /**
+     * Collections up to this size are always scanned linearly.
+     */
+    public static final int LINEAR_SCAN_LIMIT = 64;
+
+    /**
+     * The minimum fraction of versions that must fit in columns to use the columnar filter.
+     */
+    public static final double COLUMNAR_MIN_FRACTION = 0.9;
+
+    /**
+     * The ways a query can be evaluated.
+     */
+    public enum Strategy
+    {
+        /**
+         * Every version is tested with {@link VersibleRange#contains(VersibleVersion)}.
+         */
+        LINEAR_SCAN,
+        /**
+         * The bounds of the range are located by binary search in a sorted copy of the collection.
+         */
+        SORTED_INDEX,
+        /**
+         * The versions are tested in batches by a {@link VersibleColumns} filter.
+         */
+        COLUMNAR_FILTER
+    }
+
+    /**
+     * Statistics about a collection and its use.
+     *
+     * @param size            The number of versions in the collection.
+     * @param sorted          Whether the collection was given in ascending order.
+     * @param numericFraction The fraction of versions that can be stored in columns, between 0 and 1.
+     * @param queries         The number of queries answered so far.
+     * @param strategy        The strategy used by the last query, or chosen initially if there was none.
+     */
+    public record Statistics(int size, boolean sorted, double numericFraction, long queries, Strategy strategy)
+    {
+    }
+
+    /**
+     * A change of strategy.
+     *
+     * @param query    The number of the first query answered with the strategy, or zero for the initial choice.
+     * @param strategy The strategy chosen.
+     * @param reason   A description of why the strategy was chosen.
+     */
+    public record Decision(long query, Strategy strategy, String reason)
+    {
+    }
+
+    private final VersibleVersion[] versions;
+    private final boolean sorted;
+    private final double numericFraction;
+    private final int sortThreshold;
+    private final LongAdder[] counters = new LongAdder[Strategy.values().length];
+    private final List<Decision> decisions = new ArrayList<>();
+    private long queries;
+    private Strategy strategy;
+    @Nullable
+    private VersibleVersion[] index;
+    @Nullable
+    private VersibleColumns columns;
+
+    /**
+     * Prepares a collection for querying. No index is built until the statistics justify it.
+     *
+     * @param versions The versions. They do not need to be sorted, and can contain duplicates.
+     * @return The query facade.
+     */
+    public static VersibleQuery of(Collection<VersibleVersion> versions)
+    {
+        return new VersibleQuery(versions.toArray(new VersibleVersion[0]));
+    }
+
+    private VersibleQuery(VersibleVersion[] versions)
+    {
+        this.versions = versions;
+        boolean sorted = true;
+        int numeric = 0;
+        for (int i = 0; i < versions.length; i++)
+        {
+            if (i > 0 && versions[i - 1].compareTo(versions[i]) > 0)
+                sorted = false;
+            if (VersibleColumns.fits(versions[i]))
+                numeric++;
+        }
+        this.sorted = sorted;
+        this.numericFraction = versions.length > 0 ? (double) numeric / versions.length : 1;
+        this.sortThreshold = 32 - Integer.numberOfLeadingZeros(versions.length);
+        for (var strategy : Strategy.values())
+            counters[strategy.ordinal()] = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.queries(strategy));
+
+        if (versions.length <= LINEAR_SCAN_LIMIT)
+        {
+            decide(Strategy.LINEAR_SCAN, "The collection has no more than " + LINEAR_SCAN_LIMIT + " versions.");
+        }
+        else if (sorted)
+        {
+            index = versions;
+            decide(Strategy.SORTED_INDEX, "The collection is already sorted.");
+        }
+        else
+        {
+            decide(Strategy.LINEAR_SCAN, "No queries were made yet.");
+        }
+    }
+
+    /**
+     * Returns the versions contained in a range.
+     *
+     * @param range The range.
+     * @return An immutable list of the contained versions, in ascending order.
+     */
+    public List<VersibleVersion> matching(VersibleRange range)
+    {
+        var strategy = next();
+        if (strategy == Strategy.SORTED_INDEX)
+        {
+            var index = this.index;
+            int from = lowerBound(index, range);
+            return List.of(Arrays.copyOfRange(index, from, upperBound(index, range, from)));
+        }
+
+        var result = new ArrayList<VersibleVersion>();
+        if (strategy == Strategy.COLUMNAR_FILTER)
+        {
+            var bits = columns.filter(range);
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+                result.add(versions[i]);
+        }
+        else
+        {
+            for (var version : versions)
+            {
+                if (range.contains(version))
+                    result.add(version);
+            }
+        }
+        result.sort(null);
+        return List.copyOf(result);
+    }
+
+    /**
+     * Counts the versions contained in a range.
+     *
+     * @param range The range.
+     * @return The number of contained versions.
+     */
+    public int count(VersibleRange range)
+    {
+        var strategy = next();
+        if (strategy == Strategy.SORTED_INDEX)
+        {
+            int from = lowerBound(index, range);
+            return upperBound(index, range, from) - from;
+        }
+        if (strategy == Strategy.COLUMNAR_FILTER)
+            return columns.filter(range).cardinality();
+
+        int count = 0;
+        for (var version : versions)
+        {
+            if (range.contains(version))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the newest version contained in a range.
+     *
+     * @param range The range.
+     * @return The newest contained version, or {@code null} if the range contains none.
+     */
+    @Nullable
+    public VersibleVersion newest(VersibleRange range)
+    {
+        var strategy = next();
+        if (strategy == Strategy.SORTED_INDEX)
+        {
+            int from = lowerBound(index, range);
+            int to = upperBound(index, range, from);
+            return to > from ? index[to - 1] : null;
+        }
+
+        VersibleVersion newest = null;
+        if (strategy == Strategy.COLUMNAR_FILTER)
+        {
+            var bits = columns.filter(range);
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+            {
+                if (newest == null || versions[i].compareTo(newest) > 0)
+                    newest = versions[i];
+            }
+        }
+        else
+        {
+            for (var version : versions)
+            {
+                if ((newest == null || version.compareTo(newest) > 0) && range.contains(version))
+                    newest = version;
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Returns the current statistics.
+     *
+     * @return The statistics.
+     */
+    public synchronized Statistics statistics()
+    {
+        return new Statistics(versions.length, sorted, numericFraction, queries, strategy);
+    }
+
+    /**
+     * Returns every change of strategy made so far, starting with the initial choice.
+     *
+     * @return An immutable list of decisions, oldest first.
+     */
+    public synchronized List<Decision> decisions()
+    {
+        return List.copyOf(decisions);
+    }
+
+    /**
+     * Adds the size of the versions, and of the indexes built so far, to a footprint.
+     */
+    synchronized void measureTo(VersibleFootprint footprint)
+    {
+        footprint.object(6 * VersibleFootprint.REFERENCE + Double.BYTES + Long.BYTES + Integer.BYTES + 1);
+        footprint.add(versions);
+        footprint.add(index);
+        footprint.add(columns);
+        // The counters are shared with every other query, so only the array holding them is counted
+        footprint.array(counters.length, VersibleFootprint.REFERENCE);
+        footprint.object(VersibleFootprint.REFERENCE + 2 * Integer.BYTES);
+        footprint.array(decisions.size(), VersibleFootprint.REFERENCE);
+        for (var decision : decisions)
+        {
+            footprint.object(Long.BYTES + 2 * VersibleFootprint.REFERENCE);
+            footprint.add(decision.reason());
+        }
+    }
+
+    /**
+     * Counts a query, and returns the strategy to answer it with, switching strategies if the statistics now justify it.
+     */
+    private synchronized Strategy next()
+    {
+        queries++;
+        if (strategy != Strategy.SORTED_INDEX && versions.length > LINEAR_SCAN_LIMIT)
+        {
+            if (queries >= sortThreshold)
+            {
+                var index = versions.clone();
+                Arrays.sort(index);
+                this.index = index;
+                decide(Strategy.SORTED_INDEX, queries + " queries pay for sorting " + versions.length + " versions.");
+            }
+            else if (strategy == Strategy.LINEAR_SCAN && queries >= 2 && numericFraction >= COLUMNAR_MIN_FRACTION)
+            {
+                columns = VersibleColumns.of(Arrays.asList(versions));
+                decide(Strategy.COLUMNAR_FILTER, Math.round(numericFraction * 100) + "% of the versions fit in columns.");
+            }
+        }
+        counters[strategy.ordinal()].increment();
+        return strategy;
+    }
+
+    private void decide(Strategy strategy, String reason)
+    {
+        this.strategy = strategy;
+        decisions.add(new Decision(queries, strategy, reason));
+    }
+
+    /**
+     * Returns the index of the first version which is not below the lower bound of the range.
+     */
+    private static int lowerBound(VersibleVersion[] index, VersibleRange range)
+    {
+        var min = range.minVersion();
+        if (min == null)
+            return 0;
+        int low = 0;
+        int high = index.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            int c = index[mid].compareTo(min);
+            if (c < 0 || (c == 0 && range.minExclusive()))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index after the last version which is not above the upper bound of the range.
+     */
+    private static int upperBound(VersibleVersion[] index, VersibleRange range, int from)
+    {
+        var max = range.maxVersion();
+        if (max == null)
+            return index.length;
+        int low = from;
+        int high = index.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            int c = index[mid].compareTo(max);
+            if (c < 0 || (c == 0 && !range.maxExclusive()))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+}
@@ -4,6 +4,8 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.function.Predicate;
 
@@ -200,36 +202,86 @@ public record VersibleRange(@Nullable VersibleVersion minVersion, boolean minExc
     @Override
     public int hashCode()
     {
+        // Combined by hand rather than with Objects.hash, which boxes the flags into a new array on every call.
+        // The bounds of interned ranges store their hash, so hashing those ranges only reads the stored values.
         int hash = 0;
         if (minVersion != null)
-            hash = hash * 31 + Objects.hash(minVersion, minExclusive);
-        if (minVersion != null)
-            hash = hash * 31 + Objects.hash(maxVersion, maxExclusive);
+            hash = hash * 31 + boundHash(minVersion, minExclusive);
+        if (maxVersion != null)
+            hash = hash * 31 + boundHash(maxVersion, maxExclusive);
         return hash;
     }
 
+    private static int boundHash(VersibleVersion version, boolean exclusive)
+    {
+        return (31 + version.hashCode()) * 31 + Boolean.hashCode(exclusive);
+    }
+
     @Override
     public String toString()
     {
-        if (minVersion != null && maxVersion != null)
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the interval notation of this range to an {@link Appendable}, without building intermediate strings.
+     *
+     * @param out The destination.
+     * @return The destination.
+     * @throws IOException If the destination throws.
+     */
+    public Appendable appendTo(Appendable out) throws IOException
+    {
+        if (minVersion != null)
         {
-            var open = minExclusive ? "(" : "[";
-            var close = minExclusive ? ")" : "]";
-            return open + minVersion + "," + maxVersion + close;
+            out.append(minExclusive ? '(' : '[');
+            minVersion.appendTo(out);
         }
-        else if (minVersion != null)
+        else
         {
-            var open = minExclusive ? "(" : "[";
-            return open + minVersion + ",)";
+            out.append('(');
         }
-        else if (maxVersion != null)
+        out.append(',');
+        if (maxVersion != null)
         {
-            var close = minExclusive ? ")" : "]";
-            return "(," + maxVersion + close;
+            maxVersion.appendTo(out);
+            out.append(maxExclusive ? ')' : ']');
         }
         else
         {
-            return "(invalid)";
+            out.append(')');
+        }
+        return out;
+    }
+
+    /**
+     * Appends the interval notation of this range to a {@link StringBuilder}, without building intermediate strings.
+     *
+     * @param out The destination.
+     * @return The destination.
+     */
+    public StringBuilder appendTo(StringBuilder out)
+    {
+        try
+        {
+            appendTo((Appendable) out);
         }
+        catch (IOException e)
+        {
+            throw new AssertionError("StringBuilder cannot throw IOException", e);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the interval notation of this range into a byte buffer, encoded as UTF-8.
+     * The buffer is only modified if there is enough space for the whole representation.
+     *
+     * @param buffer The destination. Its position is advanced past the written bytes.
+     * @throws java.nio.BufferOverflowException If there is not enough space remaining in the buffer.
+     */
+    public void writeTo(ByteBuffer buffer)
+    {
+        VersibleText.writeUtf8(buffer, this::appendTo);
     }
 }
@@ -0,0 +1,251 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A compact, append-only table of ranges, such as the dependency edges of a catalog.
+ * <p>
+ * Each distinct bound version is stored once, and rows only hold the ids of their two bounds and a byte of flags for exclusive and unbounded ends,
+ * so memory grows with the number of distinct bounds rather than with the number of rows. This matters for tables built by
+ * {@link VersibleParser#parseRange(String)}, where many rows share bounds such as the ones produced by approximate ranges.
+ * <p>
+ * {@link #contains(VersibleVersion)} tests a version against every row at once: the version is located among the sorted distinct bounds
+ * with a single binary search, after which each row is decided by comparing integers.
+ * Instances must not be modified while other threads are reading them.
+ */
+public class VersibleRangeTable
+{
+    private static final byte MIN_EXCLUSIVE = 1;
+    private static final byte MAX_EXCLUSIVE = 2;
+    private static final byte MIN_UNBOUNDED = 4;
+    private static final byte MAX_UNBOUNDED = 8;
+
+    private final Map<VersibleVersion, Integer> boundIds = new HashMap<>();
+    private VersibleVersion[] bounds = new VersibleVersion[16];
+    private int boundCount;
+    private int[] minIds = new int[16];
+    private int[] maxIds = new int[16];
+    private byte[] flags = new byte[16];
+    private int size;
+    @Nullable
+    private volatile Ranking ranking;
+
+    /**
+     * Returns a table containing the given ranges, in iteration order.
+     *
+     * @param ranges The ranges.
+     * @return The table.
+     */
+    public static VersibleRangeTable of(Collection<VersibleRange> ranges)
+    {
+        var table = new VersibleRangeTable();
+        ranges.forEach(table::add);
+        return table;
+    }
+
+    /**
+     * Appends a range to the table.
+     *
+     * @param range The range.
+     * @return The index of the new row.
+     */
+    public int add(VersibleRange range)
+    {
+        if (size == flags.length)
+        {
+            int capacity = size * 2;
+            minIds = Arrays.copyOf(minIds, capacity);
+            maxIds = Arrays.copyOf(maxIds, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        byte flags = 0;
+        if (range.minVersion() != null)
+        {
+            minIds[size] = boundId(range.minVersion());
+            if (range.minExclusive())
+                flags |= MIN_EXCLUSIVE;
+        }
+        else
+        {
+            flags |= MIN_UNBOUNDED;
+        }
+        if (range.maxVersion() != null)
+        {
+            maxIds[size] = boundId(range.maxVersion());
+            if (range.maxExclusive())
+                flags |= MAX_EXCLUSIVE;
+        }
+        else
+        {
+            flags |= MAX_UNBOUNDED;
+        }
+        this.flags[size] = flags;
+        return size++;
+    }
+
+    private int boundId(VersibleVersion version)
+    {
+        var id = boundIds.get(version);
+        if (id != null)
+            return id;
+        if (boundCount == bounds.length)
+            bounds = Arrays.copyOf(bounds, boundCount * 2);
+        bounds[boundCount] = version;
+        boundIds.put(version, boundCount);
+        ranking = null;
+        return boundCount++;
+    }
+
+    /**
+     * Returns the number of rows in the table.
+     *
+     * @return The number of rows.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct bound versions stored in the table.
+     *
+     * @return The number of distinct bounds.
+     */
+    public int distinctBounds()
+    {
+        return boundCount;
+    }
+
+    /**
+     * Adds the size of the rows and the bound dictionary to a footprint.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        footprint.object(6 * VersibleFootprint.REFERENCE + 2 * Integer.BYTES);
+        footprint.add(boundIds);
+        footprint.add(bounds);
+        footprint.add(minIds);
+        footprint.add(maxIds);
+        footprint.add(flags);
+        var ranking = this.ranking;
+        if (ranking != null)
+        {
+            footprint.object(2 * VersibleFootprint.REFERENCE);
+            footprint.add(ranking.sorted);
+            footprint.add(ranking.ranks);
+        }
+    }
+
+    /**
+     * Returns the range in a row.
+     *
+     * @param row The index of the row.
+     * @return The range.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    public VersibleRange get(int row)
+    {
+        Objects.checkIndex(row, size);
+        byte flags = this.flags[row];
+        return new VersibleRange(
+                (flags & MIN_UNBOUNDED) == 0 ? bounds[minIds[row]] : null, (flags & MIN_EXCLUSIVE) != 0,
+                (flags & MAX_UNBOUNDED) == 0 ? bounds[maxIds[row]] : null, (flags & MAX_EXCLUSIVE) != 0);
+    }
+
+    /**
+     * Checks if the range in a row contains a version.
+     *
+     * @param row     The index of the row.
+     * @param version The version.
+     * @return {@code true} if the range contains the version.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    public boolean contains(int row, VersibleVersion version)
+    {
+        Objects.checkIndex(row, size);
+        byte flags = this.flags[row];
+        if ((flags & MIN_UNBOUNDED) == 0)
+        {
+            int c = bounds[minIds[row]].compareTo(version);
+            if (c > 0 || (c == 0 && (flags & MIN_EXCLUSIVE) != 0))
+                return false;
+        }
+        if ((flags & MAX_UNBOUNDED) == 0)
+        {
+            int c = bounds[maxIds[row]].compareTo(version);
+            if (c < 0 || (c == 0 && (flags & MAX_EXCLUSIVE) != 0))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the rows whose range contains a version.
+     *
+     * @param version The version.
+     * @return A new bit set, with the bit of each row containing the version set.
+     */
+    public BitSet contains(VersibleVersion version)
+    {
+        var ranking = ranking();
+        var ranks = ranking.ranks;
+        int position = Arrays.binarySearch(ranking.sorted, version);
+        boolean exact = position >= 0;
+        // Bounds ranked below the insertion point are lower than the version, and bounds ranked above it are higher
+        int insertion = exact ? position : -position - 1;
+
+        var result = new BitSet(size);
+        for (int row = 0; row < size; row++)
+        {
+            byte flags = this.flags[row];
+            if ((flags & MIN_UNBOUNDED) == 0)
+            {
+                int rank = ranks[minIds[row]];
+                if (rank > insertion || (rank == insertion && (!exact || (flags & MIN_EXCLUSIVE) != 0)))
+                    continue;
+            }
+            if ((flags & MAX_UNBOUNDED) == 0)
+            {
+                int rank = ranks[maxIds[row]];
+                if (rank < insertion || (rank == insertion && exact && (flags & MAX_EXCLUSIVE) != 0))
+                    continue;
+            }
+            result.set(row);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sorted bounds and the rank of each bound id among them, sorting them first if bounds were added since the last call.
+     * Both are published together, so concurrent readers never see one without the other.
+     */
+    private Ranking ranking()
+    {
+        var ranking = this.ranking;
+        if (ranking == null)
+        {
+            var sorted = Arrays.copyOf(bounds, boundCount);
+            Arrays.sort(sorted);
+            var ranks = new int[boundCount];
+            for (int rank = 0; rank < boundCount; rank++)
+                ranks[boundIds.get(sorted[rank])] = rank;
+            ranking = new Ranking(sorted, ranks);
+            this.ranking = ranking;
+        }
+        return ranking;
+    }
+
+    /**
+     * The distinct bounds in ascending order, and the rank of each bound id among them.
+     */
+    private record Ranking(VersibleVersion[] sorted, int[] ranks)
+    {
+    }
+}
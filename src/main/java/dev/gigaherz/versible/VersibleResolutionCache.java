@@ -0,0 +1,322 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent cache of resolution results, keyed by the {@link VersibleFingerprint} of the constraints and catalog they were resolved from.
+ * <p>
+ * Results are appended to a memory-mapped file and never rewritten, so a result stored by one process is a single lookup for the next one.
+ * Each record is protected by a checksum: records left incomplete by a crash are detected when the file is opened, and new records overwrite them.
+ * A cache file can only be opened by one process at a time. Within a process, a cache can be shared between threads.
+ * <p>
+ * Lookups through {@link #get(VersibleFingerprint)} and {@link #computeIfAbsent(VersibleFingerprint, Function)} are tracked in the {@value #CACHE}
+ * {@link VersibleMetrics#cacheHits(String) cache counters}, and reported as cache lookup events.
+ */
+public class VersibleResolutionCache implements Closeable
+{
+    /**
+     * The cache name used in metrics and events.
+     */
+    public static final String CACHE = "resolutions";
+
+    private static final long MAGIC = 0x5645525343414331L; // "VERSCAC1"
+    private static final int RECORD_MARKER = 0x52455331; // "RES1"
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 4 + 8 + 8 + 4 + 4;
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final Map<VersibleFingerprint, Integer> offsets = new ConcurrentHashMap<>();
+    private volatile MappedByteBuffer buffer;
+    private int end;
+    private final LongAdder hits = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheHits(CACHE));
+    private final LongAdder misses = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheMisses(CACHE));
+
+    /**
+     * Opens a cache file, creating it if it does not exist, and indexes the records it contains.
+     *
+     * @param file The cache file.
+     * @return The cache.
+     * @throws IOException If the file cannot be opened, is not a cache file, or is in use by another process.
+     */
+    public static VersibleResolutionCache open(Path file) throws IOException
+    {
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try
+        {
+            var lock = channel.tryLock();
+            if (lock == null)
+                throw new IOException("The cache file " + file + " is in use by another process.");
+            return new VersibleResolutionCache(channel, lock);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private VersibleResolutionCache(FileChannel channel, FileLock lock) throws IOException
+    {
+        this.channel = channel;
+        this.lock = lock;
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("The cache file is too large.");
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+        if (size == 0)
+        {
+            buffer.putLong(0, MAGIC);
+        }
+        else if (size < HEADER_SIZE || buffer.getLong(0) != MAGIC)
+        {
+            throw new IOException("The file is not a resolution cache.");
+        }
+        end = HEADER_SIZE;
+        while (true)
+        {
+            int length = validRecordLength(end);
+            if (length < 0)
+                break;
+            offsets.put(new VersibleFingerprint(buffer.getLong(end + 4), buffer.getLong(end + 12)), end);
+            end += length;
+        }
+    }
+
+    /**
+     * Returns the total length of the record at the given position, or -1 if there is no complete and valid record there.
+     */
+    private int validRecordLength(int position)
+    {
+        var buffer = this.buffer;
+        if (position + RECORD_HEADER_SIZE > buffer.capacity() || buffer.getInt(position) != RECORD_MARKER)
+            return -1;
+        int payloadLength = buffer.getInt(position + 20);
+        if (payloadLength < 0 || payloadLength > buffer.capacity() - position - RECORD_HEADER_SIZE)
+            return -1;
+        var crc = new CRC32();
+        crc.update(buffer.slice(position + 4, 16));
+        crc.update(buffer.slice(position + RECORD_HEADER_SIZE, payloadLength));
+        if ((int) crc.getValue() != buffer.getInt(position + 24))
+            return -1;
+        return RECORD_HEADER_SIZE + payloadLength;
+    }
+
+    /**
+     * Returns the number of results in the cache.
+     *
+     * @return The number of results.
+     */
+    public int size()
+    {
+        return offsets.size();
+    }
+
+    /**
+     * Adds the size of the index of records to a footprint. The records themselves are in the mapped file, outside the heap, so they are not counted.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        footprint.object(6 * VersibleFootprint.REFERENCE + Integer.BYTES);
+        int records = offsets.size();
+        footprint.table(records);
+        // A fingerprint and a boxed offset per record
+        footprint.objects(records, 2 * Long.BYTES);
+        footprint.objects(records, Integer.BYTES);
+    }
+
+    /**
+     * Returns the result stored for a fingerprint.
+     * The versions in the result are parsed lazily, so a result which is only forwarded is not fully parsed.
+     *
+     * @param fingerprint The fingerprint of the resolved constraints and catalog.
+     * @return An immutable map from name to selected version, sorted by name, or {@code null} if there is no result for the fingerprint.
+     */
+    @Nullable
+    public Map<String, VersibleVersion> get(VersibleFingerprint fingerprint)
+    {
+        var event = new VersibleEvents.CacheLookup();
+        event.begin();
+        var result = read(fingerprint);
+        (result != null ? hits : misses).increment();
+        VersibleEvents.cacheLookup(event, CACHE, result != null);
+        return result;
+    }
+
+    @Nullable
+    private Map<String, VersibleVersion> read(VersibleFingerprint fingerprint)
+    {
+        var offset = offsets.get(fingerprint);
+        if (offset == null)
+            return null;
+        var buffer = this.buffer;
+        int payloadLength = buffer.getInt(offset + 20);
+        return decode(buffer.slice(offset + RECORD_HEADER_SIZE, payloadLength));
+    }
+
+    /**
+     * Returns the result stored for a fingerprint, computing and storing it if there is none.
+     * Concurrent calls for the same fingerprint may compute the result more than once, but only the first one is stored.
+     * <p>
+     * The resolver can return {@code null} when the constraints cannot be satisfied, as {@link VersibleResolver#resolve(VersibleCatalog, Map)} does.
+     * Such negative results are not stored, so the resolver runs again on the next call for the same fingerprint.
+     *
+     * @param fingerprint The fingerprint of the resolved constraints and catalog.
+     * @param resolver    Computes the result when it is not cached, or returns {@code null} if there is none.
+     * @return An immutable map from name to selected version, sorted by name, or {@code null} if the resolver returned {@code null}.
+     * @throws UncheckedIOException If the result cannot be written to the file.
+     */
+    @Nullable
+    public Map<String, VersibleVersion> computeIfAbsent(VersibleFingerprint fingerprint, Function<VersibleFingerprint, @Nullable Map<String, VersibleVersion>> resolver)
+    {
+        var event = new VersibleEvents.CacheLookup();
+        event.begin();
+        var cached = read(fingerprint);
+        if (cached != null)
+        {
+            hits.increment();
+            VersibleEvents.cacheLookup(event, CACHE, true);
+            return cached;
+        }
+
+        var result = resolver.apply(fingerprint);
+        if (result != null)
+        {
+            put(fingerprint, result);
+            result = read(fingerprint);
+        }
+        misses.increment();
+        VersibleEvents.cacheLookup(event, CACHE, false);
+        return result;
+    }
+
+    /**
+     * Stores the result for a fingerprint, unless one is already stored.
+     *
+     * @param fingerprint The fingerprint of the resolved constraints and catalog.
+     * @param result      The selected version for each name.
+     * @return {@code true} if the result was stored, {@code false} if there already was a result for the fingerprint.
+     * @throws UncheckedIOException If the result cannot be written to the file.
+     */
+    public synchronized boolean put(VersibleFingerprint fingerprint, Map<String, VersibleVersion> result)
+    {
+        if (offsets.containsKey(fingerprint))
+            return false;
+
+        byte[] payload = encode(result);
+        int length = RECORD_HEADER_SIZE + payload.length;
+        try
+        {
+            ensureCapacity(end + length);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        var buffer = this.buffer;
+        buffer.putLong(end + 4, fingerprint.high());
+        buffer.putLong(end + 12, fingerprint.low());
+        buffer.putInt(end + 20, payload.length);
+        buffer.put(end + RECORD_HEADER_SIZE, payload);
+        var crc = new CRC32();
+        crc.update(buffer.slice(end + 4, 16));
+        crc.update(payload);
+        buffer.putInt(end + 24, (int) crc.getValue());
+        // The marker is written last, so a record is never seen before it is complete
+        buffer.putInt(end, RECORD_MARKER);
+
+        offsets.put(fingerprint, end);
+        end += length;
+        return true;
+    }
+
+    private void ensureCapacity(int required) throws IOException
+    {
+        if (required <= buffer.capacity())
+            return;
+        long capacity = buffer.capacity();
+        while (capacity < required)
+            capacity *= 2;
+        if (capacity > Integer.MAX_VALUE)
+            throw new IOException("The cache file is full.");
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Writes the stored results to the storage device.
+     */
+    public synchronized void flush()
+    {
+        buffer.force();
+    }
+
+    /**
+     * Writes the stored results to the storage device, and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            buffer.force();
+            lock.release();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    private static byte[] encode(Map<String, VersibleVersion> result)
+    {
+        var sorted = new TreeMap<>(result);
+        var out = new StringBuilder();
+        sorted.forEach((name, version) ->
+        {
+            if (name.indexOf('\n') >= 0 || name.indexOf('\t') >= 0)
+                throw new IllegalArgumentException("Names cannot contain tabs or line breaks.");
+            out.append(name).append('\t');
+            version.appendTo(out).append('\n');
+        });
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, VersibleVersion> decode(ByteBuffer payload)
+    {
+        var text = StandardCharsets.UTF_8.decode(payload);
+        var result = new TreeMap<String, VersibleVersion>();
+        int lineStart = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            if (text.charAt(i) != '\n')
+                continue;
+            var line = text.subSequence(lineStart, i).toString();
+            int tab = line.indexOf('\t');
+            result.put(line.substring(0, tab), VersibleParser.parseVersionLazy(line.substring(tab + 1)));
+            lineStart = i + 1;
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
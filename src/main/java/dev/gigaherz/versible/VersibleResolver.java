@@ -0,0 +1,493 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Selects a version of every package needed to satisfy a set of requirements, given the packages available in a {@link VersibleCatalog}.
+ * <p>
+ * Packages are resolved depth-first, in the order they are first required. For each package, the candidate versions are the ones contained
+ * in every range constraining it, tried newest first; the dependencies of a candidate become new constraints, and a candidate which conflicts
+ * with a version already selected is skipped. When a package has no candidate left, the search backtracks to the previous choice.
+ * <p>
+ * Large requirement sets can be {@linkplain #resolveParallel(VersibleCatalog, Map, ForkJoinPool) resolved in parallel}, by splitting them into
+ * components that cannot constrain each other.
+ * <p>
+ * An {@link Incremental} resolver keeps the results for several consumers up to date as versions are published and retracted.
+ */
+public class VersibleResolver
+{
+    /**
+     * Resolves a set of requirements.
+     *
+     * @param catalog      The available packages.
+     * @param requirements The range of versions allowed for each directly required package.
+     * @return An immutable map from package name to selected version, sorted by name, or {@code null} if the requirements cannot be satisfied.
+     */
+    @Nullable
+    public static Map<String, VersibleVersion> resolve(VersibleCatalog catalog, Map<String, VersibleRange> requirements)
+    {
+        return new Search(catalog, requirements, Map.of(), null).run();
+    }
+
+    /**
+     * Resolves a set of requirements, splitting them into independent components which are resolved concurrently.
+     * <p>
+     * Two packages belong to the same component if any version of one depends on the other. A requirement with an {@linkplain VersibleRange#exactly exact}
+     * range is a fixed pin: no other version of the package can be chosen, so depending on it does not join components. A pin only joins the components
+     * of the dependencies of its pinned version, where it is resolved like any other requirement, and every other component only checks its ranges
+     * against the pinned version. Every component is resolved with the same search as {@link #resolve(VersibleCatalog, Map)}, with its requirements
+     * in the same order, and since components share no choices, the result is the same as resolving sequentially.
+     * Discovering the components reads the dependencies of every version of every reachable package, so the catalog must be safe
+     * to use from several threads.
+     *
+     * @param catalog      The available packages.
+     * @param requirements The range of versions allowed for each directly required package.
+     * @param pool         The pool to resolve the components in.
+     * @return An immutable map from package name to selected version, sorted by name, or {@code null} if the requirements cannot be satisfied.
+     */
+    @Nullable
+    public static Map<String, VersibleVersion> resolveParallel(VersibleCatalog catalog, Map<String, VersibleRange> requirements, ForkJoinPool pool)
+    {
+        var pins = new HashMap<String, VersibleVersion>();
+        for (var entry : requirements.entrySet())
+        {
+            var range = entry.getValue();
+            var version = range.minVersion();
+            if (version != null && version.equals(range.maxVersion()) && !range.minExclusive() && !range.maxExclusive())
+            {
+                if (!catalog.versions(entry.getKey()).contains(version))
+                    return null;
+                pins.put(entry.getKey(), version);
+            }
+        }
+
+        var components = new Components();
+        var pending = new ArrayDeque<>(requirements.keySet());
+        var seen = new HashSet<>(requirements.keySet());
+        while (!pending.isEmpty())
+        {
+            var name = pending.poll();
+            var pin = pins.get(name);
+            components.add(name);
+            for (var version : pin != null ? List.of(pin) : catalog.versions(name))
+            {
+                for (var dependency : catalog.dependencies(name, version).keySet())
+                {
+                    // The pinned version constrains its dependencies, but depending on a pin cannot affect the version chosen for it
+                    if (pin != null || !pins.containsKey(dependency))
+                        components.union(name, dependency);
+                    if (seen.add(dependency))
+                        pending.add(dependency);
+                }
+            }
+        }
+
+        var grouped = new LinkedHashMap<String, Map<String, VersibleRange>>();
+        requirements.forEach((name, range) -> grouped.computeIfAbsent(components.find(name), k -> new LinkedHashMap<>()).put(name, range));
+        var tasks = new ArrayList<ForkJoinTask<Map<String, VersibleVersion>>>();
+        for (var group : grouped.values())
+        {
+            // Pins resolved in other components are only checked against
+            var fixed = new HashMap<>(pins);
+            fixed.keySet().removeAll(group.keySet());
+            tasks.add(pool.submit(() -> new Search(catalog, group, Map.of(), null).fix(fixed).run()));
+        }
+
+        var result = new TreeMap<String, VersibleVersion>();
+        for (var task : tasks)
+        {
+            var partial = task.join();
+            if (partial == null)
+            {
+                tasks.forEach(t -> t.cancel(false));
+                return null;
+            }
+            result.putAll(partial);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Resolves a set of requirements in parallel, in the {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param catalog      The available packages.
+     * @param requirements The range of versions allowed for each directly required package.
+     * @return An immutable map from package name to selected version, sorted by name, or {@code null} if the requirements cannot be satisfied.
+     * @see #resolveParallel(VersibleCatalog, Map, ForkJoinPool)
+     */
+    @Nullable
+    public static Map<String, VersibleVersion> resolveParallel(VersibleCatalog catalog, Map<String, VersibleRange> requirements)
+    {
+        return resolveParallel(catalog, requirements, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a new {@link Incremental} resolver.
+     *
+     * @param catalog The available packages. The resolver must be notified after a version is published or retracted.
+     * @return The resolver.
+     */
+    public static Incremental incremental(VersibleCatalog catalog)
+    {
+        return new Incremental(catalog);
+    }
+
+    /**
+     * Keeps the resolved versions of several consumers up to date as the catalog changes.
+     * <p>
+     * For each consumer, the resolver keeps the selected versions and indexes every range in the result by the package it constrains:
+     * the requirements of the consumer, and the dependencies of the selected versions. When a version is published, only the consumers
+     * with a range containing it are re-evaluated; when a version is retracted, only the consumers that selected it are.
+     * Consumers whose requirements could not be satisfied are re-evaluated on every publication, since any new version could satisfy them.
+     * <p>
+     * Re-evaluation repairs the previous result instead of resolving from scratch: the changed package is resolved newest first,
+     * and every other package tries its previous version before any other, so unaffected parts of the result are kept as they were,
+     * and the search does not backtrack unless the change requires it. A published version is adopted if it is newer than the previous choice
+     * and its dependencies can be satisfied.
+     * <p>
+     * Because previous choices are preferred, a result can diverge from what {@link VersibleResolver#resolve(VersibleCatalog, Map)} would return
+     * for the same requirements: a package whose newer version only became satisfiable through a change to another package keeps its previous version.
+     * Re-{@linkplain #add(String, Map) adding} a consumer resolves it from scratch.
+     * <p>
+     * The stored results are tracked in the {@value #CACHE} {@link VersibleMetrics#cacheHits(String) cache counters}, and reported as cache lookup events:
+     * whenever the catalog changes, each consumer whose result is kept counts as a hit, and each consumer which is re-evaluated, or added, counts as a miss.
+     * <p>
+     * Instances must not be used by several threads at once.
+     */
+    public static final class Incremental
+    {
+        /**
+         * The cache name used in metrics and events.
+         */
+        public static final String CACHE = "resolver.incremental";
+
+        private final VersibleCatalog catalog;
+        private final Map<String, Map<String, VersibleRange>> requirements = new LinkedHashMap<>();
+        private final Map<String, Map<String, VersibleVersion>> results = new HashMap<>();
+        private final Map<String, Map<String, List<VersibleRange>>> constraintsByPackage = new HashMap<>();
+        private final Set<String> unsatisfied = new LinkedHashSet<>();
+        private final LongAdder hits = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheHits(CACHE));
+        private final LongAdder misses = VersibleMetricsRegistry.INSTANCE.counter(VersibleMetrics.cacheMisses(CACHE));
+
+        private Incremental(VersibleCatalog catalog)
+        {
+            this.catalog = catalog;
+        }
+
+        /**
+         * Adds a consumer, or replaces its requirements, and resolves them from scratch.
+         *
+         * @param consumer     An identifier for the consumer.
+         * @param requirements The range of versions allowed for each package the consumer directly requires.
+         * @return The result for the consumer, or {@code null} if its requirements cannot be satisfied.
+         */
+        @Nullable
+        public Map<String, VersibleVersion> add(String consumer, Map<String, VersibleRange> requirements)
+        {
+            var event = new VersibleEvents.CacheLookup();
+            event.begin();
+            remove(consumer);
+            // Repairs search the stored copy, so it must keep the order the first resolution visited the requirements in
+            var copy = Collections.unmodifiableMap(new LinkedHashMap<>(requirements));
+            this.requirements.put(consumer, copy);
+            var result = store(consumer, new Search(catalog, copy, Map.of(), null).run());
+            misses.increment();
+            VersibleEvents.cacheLookup(event, CACHE, false);
+            return result;
+        }
+
+        /**
+         * Removes a consumer.
+         *
+         * @param consumer The identifier of the consumer.
+         * @return {@code true} if the consumer was present.
+         */
+        public boolean remove(String consumer)
+        {
+            if (requirements.remove(consumer) == null)
+                return false;
+            unindex(consumer);
+            results.remove(consumer);
+            unsatisfied.remove(consumer);
+            return true;
+        }
+
+        /**
+         * Returns the current result for a consumer.
+         *
+         * @param consumer The identifier of the consumer.
+         * @return An immutable map from package name to selected version, sorted by name,
+         * or {@code null} if the consumer is unknown or its requirements cannot be satisfied.
+         */
+        @Nullable
+        public Map<String, VersibleVersion> result(String consumer)
+        {
+            return results.get(consumer);
+        }
+
+        /**
+         * Re-evaluates the consumers affected by a newly published version. Call this after the version is added to the catalog.
+         *
+         * @param name    The name of the package.
+         * @param version The published version.
+         * @return The consumers whose result changed, in the order they were added.
+         */
+        public Set<String> published(String name, VersibleVersion version)
+        {
+            var affected = new LinkedHashSet<String>();
+            var constraints = constraintsByPackage.get(name);
+            if (constraints != null)
+            {
+                constraints.forEach((consumer, ranges) ->
+                {
+                    var previous = results.get(consumer).get(name);
+                    if (version.compareTo(previous) > 0 && ranges.stream().anyMatch(range -> range.contains(version)))
+                        affected.add(consumer);
+                });
+            }
+            affected.addAll(unsatisfied);
+            return repair(affected, name);
+        }
+
+        /**
+         * Re-evaluates the consumers affected by a retracted version. Call this after the version is removed from the catalog.
+         *
+         * @param name    The name of the package.
+         * @param version The retracted version.
+         * @return The consumers whose result changed, in the order they were added.
+         */
+        public Set<String> retracted(String name, VersibleVersion version)
+        {
+            var affected = new LinkedHashSet<String>();
+            var constraints = constraintsByPackage.get(name);
+            if (constraints != null)
+            {
+                for (var consumer : constraints.keySet())
+                {
+                    if (version.equals(results.get(consumer).get(name)))
+                        affected.add(consumer);
+                }
+            }
+            return repair(affected, name);
+        }
+
+        private Set<String> repair(Set<String> affected, String changed)
+        {
+            var changedConsumers = new LinkedHashSet<String>();
+            for (var consumer : requirements.keySet())
+            {
+                var event = new VersibleEvents.CacheLookup();
+                event.begin();
+                if (!affected.contains(consumer))
+                {
+                    hits.increment();
+                    VersibleEvents.cacheLookup(event, CACHE, true);
+                    continue;
+                }
+                var previous = results.get(consumer);
+                unindex(consumer);
+                var repaired = new Search(catalog, requirements.get(consumer), previous != null ? previous : Map.of(), changed).run();
+                store(consumer, repaired);
+                if (!Objects.equals(previous, repaired))
+                    changedConsumers.add(consumer);
+                misses.increment();
+                VersibleEvents.cacheLookup(event, CACHE, false);
+            }
+            return changedConsumers;
+        }
+
+        @Nullable
+        private Map<String, VersibleVersion> store(String consumer, @Nullable Map<String, VersibleVersion> result)
+        {
+            if (result == null)
+            {
+                results.remove(consumer);
+                unsatisfied.add(consumer);
+                return null;
+            }
+            results.put(consumer, result);
+            unsatisfied.remove(consumer);
+            requirements.get(consumer).forEach((name, range) -> index(consumer, name, range));
+            result.forEach((name, version) -> catalog.dependencies(name, version).forEach((dependency, range) -> index(consumer, dependency, range)));
+            return result;
+        }
+
+        private void index(String consumer, String name, VersibleRange range)
+        {
+            constraintsByPackage.computeIfAbsent(name, k -> new HashMap<>()).computeIfAbsent(consumer, k -> new ArrayList<>()).add(range);
+        }
+
+        private void unindex(String consumer)
+        {
+            constraintsByPackage.values().removeIf(constraints -> constraints.remove(consumer) != null && constraints.isEmpty());
+        }
+    }
+
+    /**
+     * A single backtracking search.
+     */
+    private static final class Search
+    {
+        private final VersibleCatalog catalog;
+        private final Map<String, VersibleVersion> preferred;
+        @Nullable
+        private final String changed;
+        private final Map<String, List<VersibleRange>> constraints = new LinkedHashMap<>();
+        private final Map<String, VersibleVersion> selected = new HashMap<>();
+
+        Search(VersibleCatalog catalog, Map<String, VersibleRange> requirements, Map<String, VersibleVersion> preferred, @Nullable String changed)
+        {
+            this.catalog = catalog;
+            this.preferred = preferred;
+            this.changed = changed;
+            requirements.forEach(this::constrain);
+        }
+
+        /**
+         * Selects versions in advance, which the search checks ranges against but never changes.
+         */
+        Search fix(Map<String, VersibleVersion> versions)
+        {
+            selected.putAll(versions);
+            return this;
+        }
+
+        @Nullable
+        Map<String, VersibleVersion> run()
+        {
+            return solve() ? Collections.unmodifiableMap(new TreeMap<>(selected)) : null;
+        }
+
+        private boolean solve()
+        {
+            String name = null;
+            for (var candidate : constraints.keySet())
+            {
+                if (!selected.containsKey(candidate))
+                {
+                    name = candidate;
+                    break;
+                }
+            }
+            if (name == null)
+                return true;
+
+            for (var version : candidates(name))
+            {
+                var dependencies = catalog.dependencies(name, version);
+                if (!compatible(name, version, dependencies))
+                    continue;
+                selected.put(name, version);
+                dependencies.forEach(this::constrain);
+                if (solve())
+                    return true;
+                dependencies.forEach(this::unconstrain);
+                selected.remove(name);
+            }
+            return false;
+        }
+
+        private List<VersibleVersion> candidates(String name)
+        {
+            var ranges = constraints.get(name);
+            var versions = catalog.versions(name);
+            var candidates = new ArrayList<VersibleVersion>();
+            var preferred = name.equals(changed) ? null : this.preferred.get(name);
+            for (int i = versions.size() - 1; i >= 0; i--)
+            {
+                var version = versions.get(i);
+                if (ranges.stream().allMatch(range -> range.contains(version)))
+                {
+                    if (version.equals(preferred))
+                        candidates.add(0, version);
+                    else
+                        candidates.add(version);
+                }
+            }
+            return candidates;
+        }
+
+        private boolean compatible(String name, VersibleVersion version, Map<String, VersibleRange> dependencies)
+        {
+            for (var entry : dependencies.entrySet())
+            {
+                var dependency = entry.getKey();
+                var current = dependency.equals(name) ? version : selected.get(dependency);
+                if (current != null && !entry.getValue().contains(current))
+                    return false;
+            }
+            return true;
+        }
+
+        private void constrain(String name, VersibleRange range)
+        {
+            constraints.computeIfAbsent(name, k -> new ArrayList<>()).add(range);
+        }
+
+        private void unconstrain(String name, VersibleRange range)
+        {
+            var ranges = constraints.get(name);
+            ranges.remove(ranges.size() - 1);
+            if (ranges.isEmpty())
+                constraints.remove(name);
+        }
+    }
+
+    /**
+     * A union-find structure over package names.
+     */
+    private static final class Components
+    {
+        private final Map<String, String> parents = new HashMap<>();
+
+        void add(String name)
+        {
+            parents.putIfAbsent(name, name);
+        }
+
+        String find(String name)
+        {
+            add(name);
+            var root = name;
+            while (!root.equals(parents.get(root)))
+                root = parents.get(root);
+            // Compress the path, so later lookups are direct
+            while (!name.equals(root))
+            {
+                var parent = parents.get(name);
+                parents.put(name, root);
+                name = parent;
+            }
+            return root;
+        }
+
+        void union(String a, String b)
+        {
+            var rootA = find(a);
+            var rootB = find(b);
+            if (!rootA.equals(rootB))
+                parents.put(rootB, rootA);
+        }
+    }
+
+    private VersibleResolver()
+    {
+        throw new IllegalArgumentException("This class cannot be instantiated.");
+    }
+}
@@ -0,0 +1,310 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synchronizes the contents of two {@link VersibleVersionIndex version indexes} held by different nodes, exchanging only the versions that differ.
+ * This class cannot be instantiated.
+ * <p>
+ * The version space is split into buckets, and each side summarizes a bucket with a {@link Digest}: the number of versions it holds in it,
+ * and the exclusive or of a stable hash of each version. Buckets with equal digests are skipped. Buckets that differ are split at the median
+ * of the side holding more versions, and compared again, until they are small enough to be exchanged whole. Both sides end up with the union
+ * of their versions; versions are never removed.
+ * <p>
+ * The remote side is reached through a {@link Transport}, which a network layer can implement on top of {@link #digest(VersibleVersionIndex, Bucket)},
+ * {@link #median(VersibleVersionIndex, Bucket)} and {@link #versions(VersibleVersionIndex, Bucket)} on the remote node.
+ * {@link #inProcess(VersibleVersionIndex)} returns a transport to an index in the same process.
+ * <p>
+ * Indexes keep the stable hashes of their versions once they were computed, combined per segment, and update them as versions are added
+ * and removed. Digests and medians are therefore computed from the bucket bounds alone, without listing or hashing the versions in the bucket.
+ */
+public class VersibleSync
+{
+    /**
+     * Differing buckets with up to this many versions, counting both sides, are exchanged whole instead of being split.
+     */
+    public static final int LEAF_SIZE = 32;
+
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * The operations a node answers during synchronization.
+     */
+    public interface Transport
+    {
+        /**
+         * Returns the digest of a bucket.
+         *
+         * @param bucket The bucket.
+         * @return The digest of the versions in the bucket.
+         */
+        Digest digest(Bucket bucket);
+
+        /**
+         * Returns the median version of a bucket.
+         *
+         * @param bucket The bucket.
+         * @return The median of the versions in the bucket, or {@code null} if it holds fewer than two versions.
+         */
+        @Nullable
+        VersibleVersion median(Bucket bucket);
+
+        /**
+         * Returns the versions in a bucket.
+         *
+         * @param bucket The bucket.
+         * @return The versions in the bucket, in ascending order.
+         */
+        List<VersibleVersion> versions(Bucket bucket);
+
+        /**
+         * Adds versions which the node is missing.
+         *
+         * @param versions The versions to add.
+         */
+        void add(List<VersibleVersion> versions);
+    }
+
+    /**
+     * A contiguous part of the version space.
+     *
+     * @param from The lowest version in the bucket, or {@code null} if the bucket is unbounded below.
+     * @param to   The version after the highest version in the bucket, which is itself excluded, or {@code null} if the bucket is unbounded above.
+     */
+    public record Bucket(@Nullable VersibleVersion from, @Nullable VersibleVersion to)
+    {
+        /**
+         * The bucket containing every version.
+         */
+        public static final Bucket ALL = new Bucket(null, null);
+
+        /**
+         * Returns the range of versions in the bucket.
+         *
+         * @return The range, or {@code null} if the bucket contains every version.
+         */
+        @Nullable
+        public VersibleRange range()
+        {
+            if (from != null && to != null)
+                return VersibleRange.betweenClosedOpen(from, to);
+            if (from != null)
+                return VersibleRange.atLeast(from);
+            if (to != null)
+                return VersibleRange.lessThan(to);
+            return null;
+        }
+    }
+
+    /**
+     * A summary of the versions in a bucket.
+     *
+     * @param count The number of versions.
+     * @param hash  The exclusive or of the {@linkplain #stableHash(VersibleVersion) stable hashes} of the versions.
+     */
+    public record Digest(int count, long hash)
+    {
+    }
+
+    /**
+     * The outcome of a synchronization.
+     *
+     * @param bucketsCompared The number of buckets whose digests were compared.
+     * @param received        The number of versions added to the local index.
+     * @param sent            The number of versions sent to the remote node.
+     */
+    public record Result(int bucketsCompared, int received, int sent)
+    {
+    }
+
+    /**
+     * Synchronizes a local index with a remote node, so that both hold the union of their versions.
+     *
+     * @param local  The local index.
+     * @param remote The transport to the remote node.
+     * @return The number of buckets compared and versions exchanged.
+     */
+    public static Result synchronize(VersibleVersionIndex local, Transport remote)
+    {
+        var session = new Session(local, remote);
+        session.compare(Bucket.ALL, 0);
+        return new Result(session.bucketsCompared, session.received, session.sent);
+    }
+
+    /**
+     * Returns the digest of a bucket of an index.
+     *
+     * @param index  The index.
+     * @param bucket The bucket.
+     * @return The digest of the versions of the index in the bucket.
+     */
+    public static Digest digest(VersibleVersionIndex index, Bucket bucket)
+    {
+        var snapshot = index.snapshot();
+        var range = bucket.range();
+        int from = range != null ? snapshot.from(range) : 0;
+        int to = range != null ? snapshot.to(range) : snapshot.size();
+        return new Digest(to - from, snapshot.stableHash(from, to));
+    }
+
+    /**
+     * Returns the median version of a bucket of an index.
+     *
+     * @param index  The index.
+     * @param bucket The bucket.
+     * @return The median of the versions of the index in the bucket, or {@code null} if it holds fewer than two versions.
+     */
+    @Nullable
+    public static VersibleVersion median(VersibleVersionIndex index, Bucket bucket)
+    {
+        var snapshot = index.snapshot();
+        var range = bucket.range();
+        int from = range != null ? snapshot.from(range) : 0;
+        int to = range != null ? snapshot.to(range) : snapshot.size();
+        return to - from >= 2 ? snapshot.get(from + (to - from) / 2) : null;
+    }
+
+    /**
+     * Returns the versions in a bucket of an index.
+     *
+     * @param index  The index.
+     * @param bucket The bucket.
+     * @return An immutable list of the versions of the index in the bucket, in ascending order.
+     */
+    public static List<VersibleVersion> versions(VersibleVersionIndex index, Bucket bucket)
+    {
+        var range = bucket.range();
+        return range != null ? index.matching(range) : index.snapshot();
+    }
+
+    /**
+     * Returns a transport to an index in the same process.
+     *
+     * @param index The index.
+     * @return The transport.
+     */
+    public static Transport inProcess(VersibleVersionIndex index)
+    {
+        return new Transport()
+        {
+            @Override
+            public Digest digest(Bucket bucket)
+            {
+                return VersibleSync.digest(index, bucket);
+            }
+
+            @Nullable
+            @Override
+            public VersibleVersion median(Bucket bucket)
+            {
+                return VersibleSync.median(index, bucket);
+            }
+
+            @Override
+            public List<VersibleVersion> versions(Bucket bucket)
+            {
+                return VersibleSync.versions(index, bucket);
+            }
+
+            @Override
+            public void add(List<VersibleVersion> versions)
+            {
+                index.addAll(versions);
+            }
+        };
+    }
+
+    /**
+     * Returns a 64-bit hash of a version, which only depends on its canonical text form, so it is the same on every node and across library versions.
+     *
+     * @param version The version.
+     * @return The hash.
+     */
+    public static long stableHash(VersibleVersion version)
+    {
+        // FNV-1a over the canonical text, followed by a finalizer, so the hashes of similar versions differ in every bit
+        var text = version.appendTo(new StringBuilder());
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++)
+        {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Session
+    {
+        private final VersibleVersionIndex local;
+        private final Transport remote;
+        private int bucketsCompared;
+        private int received;
+        private int sent;
+
+        Session(VersibleVersionIndex local, Transport remote)
+        {
+            this.local = local;
+            this.remote = remote;
+        }
+
+        void compare(Bucket bucket, int depth)
+        {
+            bucketsCompared++;
+            var localDigest = digest(local, bucket);
+            var remoteDigest = remote.digest(bucket);
+            if (localDigest.equals(remoteDigest))
+                return;
+
+            VersibleVersion median = null;
+            if (localDigest.count() + remoteDigest.count() > LEAF_SIZE && depth < MAX_DEPTH)
+                median = localDigest.count() >= remoteDigest.count() ? median(local, bucket) : remote.median(bucket);
+            if (median == null)
+            {
+                exchange(bucket);
+                return;
+            }
+            compare(new Bucket(bucket.from(), median), depth + 1);
+            compare(new Bucket(median, bucket.to()), depth + 1);
+        }
+
+        private void exchange(Bucket bucket)
+        {
+            var mine = versions(local, bucket);
+            var theirs = remote.versions(bucket);
+            var missingHere = new ArrayList<VersibleVersion>();
+            var missingThere = new ArrayList<VersibleVersion>();
+            int i = 0;
+            int j = 0;
+            while (i < mine.size() || j < theirs.size())
+            {
+                int c = i == mine.size() ? 1 : j == theirs.size() ? -1 : mine.get(i).compareTo(theirs.get(j));
+                if (c < 0)
+                    missingThere.add(mine.get(i++));
+                else if (c > 0)
+                    missingHere.add(theirs.get(j++));
+                else
+                {
+                    i++;
+                    j++;
+                }
+            }
+            if (!missingHere.isEmpty())
+                local.addAll(missingHere);
+            if (!missingThere.isEmpty())
+                remote.add(missingThere);
+            received += missingHere.size();
+            sent += missingThere.size();
+        }
+    }
+
+    private VersibleSync()
+    {
+        throw new IllegalArgumentException("This class cannot be instantiated.");
+    }
+}
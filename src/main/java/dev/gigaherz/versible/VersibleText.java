@@ -0,0 +1,177 @@
+package dev.gigaherz.versible;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Character sinks used to render versions and ranges without building intermediate strings.
+ */
+final class VersibleText
+{
+    /**
+     * Appends the decimal representation of a non-negative number.
+     *
+     * @param out    The destination.
+     * @param number The number to append.
+     * @throws IOException If the destination throws.
+     */
+    static void appendNumber(Appendable out, long number) throws IOException
+    {
+        if (out instanceof StringBuilder b)
+        {
+            b.append(number);
+            return;
+        }
+        long divisor = 1;
+        while (number / divisor >= 10)
+            divisor *= 10;
+        for (; divisor > 0; divisor /= 10)
+            out.append((char) ('0' + (number / divisor) % 10));
+    }
+
+    /**
+     * Renders an object through the given writer into a byte buffer, encoded as UTF-8.
+     * The buffer is only modified if there is enough space for the whole output.
+     *
+     * @param buffer The destination.
+     * @param writer The rendering routine.
+     * @throws BufferOverflowException If there is not enough space remaining in the buffer.
+     */
+    static void writeUtf8(ByteBuffer buffer, Writer writer)
+    {
+        try
+        {
+            var counter = new Utf8Counter();
+            writer.write(counter);
+            if (counter.length > buffer.remaining())
+                throw new BufferOverflowException();
+            writer.write(new Utf8Sink(buffer));
+        }
+        catch (IOException e)
+        {
+            throw new AssertionError("Rendering into memory cannot fail", e);
+        }
+    }
+
+    /**
+     * Checks whether the given writer produces exactly the given region of text.
+     *
+     * @param text   The text to compare against.
+     * @param start  The index of the first character of the region.
+     * @param end    The index after the last character of the region.
+     * @param writer The rendering routine.
+     * @return {@code true} if the output is equal to the region.
+     */
+    static boolean rendersAs(CharSequence text, int start, int end, Writer writer)
+    {
+        var matcher = new Matcher(text, start, end);
+        try
+        {
+            writer.write(matcher);
+        }
+        catch (IOException e)
+        {
+            throw new AssertionError("Rendering into memory cannot fail", e);
+        }
+        return matcher.matches && matcher.position == end;
+    }
+
+    interface Writer
+    {
+        void write(Appendable out) throws IOException;
+    }
+
+    private abstract static class CharSink implements Appendable
+    {
+        @Override
+        public abstract Appendable append(char c);
+
+        @Override
+        public Appendable append(CharSequence csq)
+        {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end)
+        {
+            for (int i = start; i < end; i++)
+                append(csq.charAt(i));
+            return this;
+        }
+    }
+
+    private static final class Utf8Counter extends CharSink
+    {
+        int length;
+
+        @Override
+        public Appendable append(char c)
+        {
+            length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            return this;
+        }
+    }
+
+    /**
+     * Encodes characters as UTF-8. Versions can only contain letters from the basic multilingual plane, so there are no surrogate pairs to handle.
+     */
+    private static final class Utf8Sink extends CharSink
+    {
+        private final ByteBuffer buffer;
+
+        Utf8Sink(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Appendable append(char c)
+        {
+            if (c < 0x80)
+            {
+                buffer.put((byte) c);
+            }
+            else if (c < 0x800)
+            {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+            else
+            {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+            return this;
+        }
+    }
+
+    private static final class Matcher extends CharSink
+    {
+        private final CharSequence text;
+        private final int end;
+        int position;
+        boolean matches = true;
+
+        Matcher(CharSequence text, int start, int end)
+        {
+            this.text = text;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public Appendable append(char c)
+        {
+            if (matches)
+                matches = position < end && text.charAt(position++) == c;
+            return this;
+        }
+    }
+
+    private VersibleText()
+    {
+    }
+}
@@ -3,10 +3,13 @@ package dev.gigaherz.versible;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 /**
@@ -28,6 +31,16 @@ public record VersibleVersion(@NotNull List<VersibleComponent> components) imple
         return new VersibleVersion(Collections.unmodifiableList(componentList));
     }
 
+    /**
+     * Returns a new, empty {@link Builder}.
+     *
+     * @return The builder.
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
     /**
      * Constructs the version with the given components.
      * To parse a version from string, {@link VersibleParser#parseVersion(String)} should be used instead.
@@ -81,53 +94,50 @@ public record VersibleVersion(@NotNull List<VersibleComponent> components) imple
         int i;
         for (i = 0; i < min; i++)
         {
-            var a = get(i);
-            var b = o.get(i);
-            int c = a.compareTo(b);
+            int c = VersibleComponent.compare(get(i), o.get(i));
             if (c != 0)
                 return c;
         }
         if (size() > o.size())
         {
-            return get(i) instanceof VersibleComponent.Suffix s && !s.positive() ? -1 : 1;
+            return VersibleComponent.kindOf(get(i)) == VersibleComponent.NEGATIVE_SUFFIX ? -1 : 1;
         }
         else if (size() < o.size())
         {
-            return o.get(i) instanceof VersibleComponent.Suffix s && !s.positive() ? 1 : -1;
+            return VersibleComponent.kindOf(o.get(i)) == VersibleComponent.NEGATIVE_SUFFIX ? 1 : -1;
         }
         return 0;
     }
 
     /**
      * Returns a new {@link VersibleVersion} with the components of another version concatenated after the components of this version.
+     * The returned version references the components of this version instead of copying them.
      *
      * @param other The version to append components from.
      * @return The version with the concatenated components.
      */
     public VersibleVersion append(VersibleVersion other)
     {
-        List<VersibleComponent> mergedComponents = new ArrayList<>(components.size() + other.components.size());
-        mergedComponents.addAll(components);
-        mergedComponents.addAll(other.components);
-        return new VersibleVersion(Collections.unmodifiableList(mergedComponents));
+        return new VersibleVersion(VersibleComponentLists.concat(components, other.components));
     }
 
     /**
      * Returns a new {@link VersibleVersion} with the components of another version concatenated after the components of this version.
+     * The returned version references the components of this version instead of copying them.
      *
      * @param other The version to append components from.
      * @return The version with the concatenated components.
      */
     public VersibleVersion append(Object... other)
     {
-        List<VersibleComponent> mergedComponents = new ArrayList<>(components.size() + other.length);
-        mergedComponents.addAll(components);
-        appendArray(mergedComponents, other);
-        return new VersibleVersion(Collections.unmodifiableList(mergedComponents));
+        List<VersibleComponent> appendedComponents = new ArrayList<>(other.length);
+        appendArray(appendedComponents, other);
+        return new VersibleVersion(VersibleComponentLists.concat(components, Collections.unmodifiableList(appendedComponents)));
     }
 
     /**
      * Returns a new {@link VersibleVersion} with the given numeric component incremented by one.
+     * The returned version references the components of this version instead of copying them.
      *
      * @param index The index of the component to increment.
      * @return The version string corresponding to the version with the incremented component.
@@ -135,46 +145,307 @@ public record VersibleVersion(@NotNull List<VersibleComponent> components) imple
      */
     public VersibleVersion bump(int index)
     {
-        List<VersibleComponent> newList = new ArrayList<>(components);
-        var component = newList.get(index);
+        var component = components.get(index);
         if (component instanceof VersibleComponent.Numeric num)
-            newList.set(index, VersibleComponent.of(num.number() + 1));
+            return new VersibleVersion(VersibleComponentLists.replace(components, index, VersibleComponent.of(num.number() + 1)));
         else throw new IllegalArgumentException("The component at index " + index + " is not a numeric component.");
-        return new VersibleVersion(Collections.unmodifiableList(newList));
     }
 
+    /**
+     * Returns the string representation of this version. For parsed versions whose text was already in canonical form,
+     * this is the original text, so no new string is built.
+     *
+     * @return The canonical string representation of this version.
+     */
     @Override
     public String toString()
     {
-        StringBuilder b = new StringBuilder();
+        var source = VersibleComponentLists.sourceOf(components);
+        if (source != null)
+            return source;
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the canonical string representation of this version to an {@link Appendable}, without building an intermediate string.
+     *
+     * @param out The destination.
+     * @return The destination.
+     * @throws IOException If the destination throws.
+     */
+    public Appendable appendTo(Appendable out) throws IOException
+    {
+        var source = VersibleComponentLists.sourceOf(components);
+        if (source != null)
+            return out.append(source);
+        render(components, out);
+        return out;
+    }
+
+    /**
+     * Appends the canonical string representation of this version to a {@link StringBuilder}, without building an intermediate string.
+     *
+     * @param out The destination.
+     * @return The destination.
+     */
+    public StringBuilder appendTo(StringBuilder out)
+    {
+        try
+        {
+            appendTo((Appendable) out);
+        }
+        catch (IOException e)
+        {
+            throw new AssertionError("StringBuilder cannot throw IOException", e);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the canonical string representation of this version into a byte buffer, encoded as UTF-8.
+     * The buffer is only modified if there is enough space for the whole representation.
+     *
+     * @param buffer The destination. Its position is advanced past the written bytes.
+     * @throws java.nio.BufferOverflowException If there is not enough space remaining in the buffer.
+     */
+    public void writeTo(ByteBuffer buffer)
+    {
+        VersibleText.writeUtf8(buffer, this::appendTo);
+    }
+
+    /**
+     * Checks whether a component list renders exactly as the given region of text.
+     */
+    static boolean rendersAs(List<VersibleComponent> components, CharSequence text, int start, int end)
+    {
+        return VersibleText.rendersAs(text, start, end, out -> render(components, out));
+    }
+
+    private static void render(List<VersibleComponent> components, Appendable out) throws IOException
+    {
         boolean lastWasNumber = false;
         boolean lastWasWord = false;
         for (var component : components)
         {
-            if (component instanceof VersibleComponent.Numeric n)
+            int kind = VersibleComponent.kindOf(component);
+            switch (kind)
+            {
+                case VersibleComponent.NUMERIC ->
+                {
+                    if (lastWasNumber)
+                        out.append('.');
+                    VersibleText.appendNumber(out, ((VersibleComponent.Numeric) component).number());
+                }
+                case VersibleComponent.ALPHABETIC ->
+                {
+                    if (lastWasWord)
+                        out.append('.');
+                    out.append(((VersibleComponent.Alphabetic) component).word());
+                }
+                default -> out.append(kind == VersibleComponent.POSITIVE_SUFFIX ? '+' : '-');
+            }
+            lastWasNumber = kind == VersibleComponent.NUMERIC;
+            lastWasWord = kind == VersibleComponent.ALPHABETIC;
+        }
+    }
+
+    /**
+     * Builds versions one component at a time.
+     * <p>
+     * Components are kept in primitive buffers which are reused across {@link #reset()}, so a builder can generate many versions
+     * without allocating anything other than the versions returned by {@link #build()}. Builders are not thread-safe.
+     */
+    public static final class Builder
+    {
+        private static final byte NUMBER = VersibleComponent.NUMERIC;
+        private static final byte WORD = VersibleComponent.ALPHABETIC;
+        private static final byte POSITIVE = VersibleComponent.POSITIVE_SUFFIX;
+        private static final byte NEGATIVE = VersibleComponent.NEGATIVE_SUFFIX;
+
+        private byte[] kinds = new byte[8];
+        private long[] numbers = new long[8];
+        // The end of the characters used by each component and the ones before it.
+        private int[] wordEnds = new int[8];
+        private char[] chars = new char[32];
+        private int size;
+        private int charCount;
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Appends a numeric component.
+         *
+         * @param number The number to append. Must be positive or zero.
+         * @return This builder.
+         * @throws IllegalArgumentException If the number is negative.
+         */
+        public Builder number(long number)
+        {
+            if (number < 0)
+                throw new IllegalArgumentException("The number cannot be negative");
+            // The buffers may be reallocated while adding the component, so the array must only be read afterwards
+            int index = add(NUMBER);
+            numbers[index] = number;
+            return this;
+        }
+
+        /**
+         * Appends an alphabetic component. The characters are copied, so the sequence can be modified afterwards.
+         *
+         * @param word The word to append. Must only contain letters.
+         * @return This builder.
+         * @throws IllegalArgumentException If the word is empty or contains characters other than letters.
+         */
+        public Builder word(CharSequence word)
+        {
+            int length = word.length();
+            if (length == 0)
+                throw new IllegalArgumentException("The word cannot be empty");
+            if (charCount + length > chars.length)
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+            for (int i = 0; i < length; i++)
             {
-                if (lastWasNumber)
-                    b.append('.');
-                b.append(n);
-                lastWasNumber = true;
-                lastWasWord = false;
+                char c = word.charAt(i);
+                if (!Character.isLetter(c))
+                    throw new IllegalArgumentException("The word must consist only of letters");
+                chars[charCount + i] = c;
             }
-            else if (component instanceof VersibleComponent.Alphabetic a)
+            charCount += length;
+            add(WORD);
+            return this;
+        }
+
+        /**
+         * Appends a suffix component.
+         *
+         * @param positive Whether the suffix is positive {@code true} or negative {@code false}.
+         * @return This builder.
+         */
+        public Builder suffix(boolean positive)
+        {
+            add(positive ? POSITIVE : NEGATIVE);
+            return this;
+        }
+
+        /**
+         * Appends the components of a version.
+         *
+         * @param version The version to append components from.
+         * @return This builder.
+         */
+        public Builder append(VersibleVersion version)
+        {
+            for (var component : version.components)
             {
-                if (lastWasWord)
-                    b.append('.');
-                b.append(a);
-                lastWasNumber = false;
-                lastWasWord = true;
+                if (component instanceof VersibleComponent.Numeric n)
+                    number(n.number());
+                else if (component instanceof VersibleComponent.Alphabetic a)
+                    word(a.word());
+                else if (component instanceof VersibleComponent.Suffix s)
+                    suffix(s.positive());
             }
-            else if (component instanceof VersibleComponent.Suffix s)
+            return this;
+        }
+
+        /**
+         * Increments the numeric component at the given index by one.
+         *
+         * @param index The index of the component to increment.
+         * @return This builder.
+         * @throws IndexOutOfBoundsException If the index is out of range ({@code index < 0 || index >= size()}).
+         * @throws IllegalArgumentException  If the component at the given index is not a numeric component, or its number cannot be incremented.
+         */
+        public Builder bump(int index)
+        {
+            Objects.checkIndex(index, size);
+            if (kinds[index] != NUMBER)
+                throw new IllegalArgumentException("The component at index " + index + " is not a numeric component.");
+            if (numbers[index] == Long.MAX_VALUE)
+                throw new IllegalArgumentException("The component at index " + index + " is already the largest number.");
+            numbers[index]++;
+            return this;
+        }
+
+        /**
+         * Removes every component after the first {@code size} components.
+         *
+         * @param size The number of components to keep.
+         * @return This builder.
+         * @throws IndexOutOfBoundsException If the size is negative or greater than the current size.
+         */
+        public Builder truncate(int size)
+        {
+            Objects.checkIndex(size, this.size + 1);
+            this.size = size;
+            charCount = size > 0 ? wordEnds[size - 1] : 0;
+            return this;
+        }
+
+        /**
+         * Removes all the components, keeping the buffers for reuse.
+         *
+         * @return This builder.
+         */
+        public Builder reset()
+        {
+            size = 0;
+            charCount = 0;
+            return this;
+        }
+
+        /**
+         * Returns the number of components added so far.
+         *
+         * @return The number of components.
+         */
+        public int size()
+        {
+            return size;
+        }
+
+        /**
+         * Returns an immutable version with the current components. The builder can continue to be used afterwards.
+         *
+         * @return The version.
+         * @throws IllegalArgumentException If no components have been added.
+         */
+        public VersibleVersion build()
+        {
+            if (size == 0)
+                throw new IllegalArgumentException("The component list cannot be empty.");
+            var components = new VersibleComponent[size];
+            int wordStart = 0;
+            for (int i = 0; i < size; i++)
+            {
+                components[i] = switch (kinds[i])
+                {
+                    case NUMBER -> VersibleComponent.of(numbers[i]);
+                    case WORD ->
+                    {
+                        var word = new String(chars, wordStart, wordEnds[i] - wordStart);
+                        wordStart = wordEnds[i];
+                        yield VersibleComponent.of(word);
+                    }
+                    default -> VersibleComponent.suffix(kinds[i] == POSITIVE);
+                };
+            }
+            return new VersibleVersion(Collections.unmodifiableList(Arrays.asList(components)));
+        }
+
+        private int add(byte kind)
+        {
+            if (size == kinds.length)
             {
-                b.append(s);
-                lastWasNumber = false;
-                lastWasWord = false;
+                kinds = Arrays.copyOf(kinds, size * 2);
+                numbers = Arrays.copyOf(numbers, size * 2);
+                wordEnds = Arrays.copyOf(wordEnds, size * 2);
             }
+            kinds[size] = kind;
+            wordEnds[size] = charCount;
+            return size++;
         }
-        return b.toString();
     }
 
     private static void appendArray(List<VersibleComponent> componentList, Object[] components)
@@ -0,0 +1,629 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * A concurrent sorted set of versions, optimized for many readers and a steady trickle of writers.
+ * <p>
+ * The contents are held in an immutable {@link Snapshot} made of sorted segments. Readers only perform a volatile read of the current snapshot,
+ * so lookups are wait-free and never observe a partially applied update. Writers copy the single segment they modify,
+ * plus the small segment directory, and publish the result with a compare-and-set, retrying if another writer got there first.
+ */
+public class VersibleVersionIndex implements Iterable<VersibleVersion>
+{
+    private static final int SEGMENT_SIZE = 64;
+    private static final int MAX_SEGMENT_SIZE = SEGMENT_SIZE * 2;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * Adds a version to the index.
+     *
+     * @param version The version to add.
+     * @return {@code true} if the version was not already present.
+     */
+    public boolean add(VersibleVersion version)
+    {
+        while (true)
+        {
+            var snapshot = current.get();
+            var updated = snapshot.with(version);
+            if (updated == snapshot)
+                return false;
+            if (current.compareAndSet(snapshot, updated))
+                return true;
+        }
+    }
+
+    /**
+     * Adds several versions to the index, publishing them all at once.
+     *
+     * @param versions The versions to add.
+     * @return {@code true} if at least one version was not already present.
+     */
+    public boolean addAll(Collection<VersibleVersion> versions)
+    {
+        var sorted = versions.toArray(new VersibleVersion[0]);
+        Arrays.sort(sorted);
+        while (true)
+        {
+            var snapshot = current.get();
+            var updated = snapshot.withAll(sorted);
+            if (updated == snapshot)
+                return false;
+            if (current.compareAndSet(snapshot, updated))
+                return true;
+        }
+    }
+
+    /**
+     * Removes a version from the index.
+     *
+     * @param version The version to remove.
+     * @return {@code true} if the version was present.
+     */
+    public boolean remove(VersibleVersion version)
+    {
+        while (true)
+        {
+            var snapshot = current.get();
+            var updated = snapshot.without(version);
+            if (updated == snapshot)
+                return false;
+            if (current.compareAndSet(snapshot, updated))
+                return true;
+        }
+    }
+
+    /**
+     * Returns the current contents of the index. The snapshot is immutable, and is not affected by later updates.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot snapshot()
+    {
+        return current.get();
+    }
+
+    /**
+     * Returns the number of versions in the index.
+     *
+     * @return The number of versions in the index.
+     */
+    public int size()
+    {
+        return current.get().size();
+    }
+
+    /**
+     * Checks if a version is present in the index.
+     *
+     * @param version The version to look for.
+     * @return {@code true} if the version is present.
+     */
+    public boolean contains(VersibleVersion version)
+    {
+        return current.get().contains(version);
+    }
+
+    /**
+     * Returns the highest version in the index that is less than or equal to the given version.
+     *
+     * @param version The version to compare against.
+     * @return The matching version, or {@code null} if there is no such version.
+     */
+    @Nullable
+    public VersibleVersion floor(VersibleVersion version)
+    {
+        return current.get().floor(version);
+    }
+
+    /**
+     * Returns the lowest version in the index that is greater than or equal to the given version.
+     *
+     * @param version The version to compare against.
+     * @return The matching version, or {@code null} if there is no such version.
+     */
+    @Nullable
+    public VersibleVersion ceiling(VersibleVersion version)
+    {
+        return current.get().ceiling(version);
+    }
+
+    /**
+     * Returns the highest version in the index that is contained in the given range.
+     *
+     * @param range The range to match.
+     * @return The matching version, or {@code null} if there is no such version.
+     */
+    @Nullable
+    public VersibleVersion newest(VersibleRange range)
+    {
+        return current.get().newest(range);
+    }
+
+    /**
+     * Returns the versions in the index that are contained in the given range, as a view of the current snapshot.
+     *
+     * @param range The range to match.
+     * @return An immutable list of the matching versions, in ascending order.
+     */
+    public List<VersibleVersion> matching(VersibleRange range)
+    {
+        return current.get().matching(range);
+    }
+
+    /**
+     * Returns an iterator over the current snapshot. The iterator is not affected by later updates.
+     *
+     * @return An iterator over the versions in ascending order.
+     */
+    @Override
+    public Iterator<VersibleVersion> iterator()
+    {
+        return current.get().iterator();
+    }
+
+    /**
+     * Returns a sequential {@code Stream} over the current snapshot.
+     *
+     * @return A stream of the versions in ascending order.
+     */
+    public Stream<VersibleVersion> stream()
+    {
+        return current.get().stream();
+    }
+
+    /**
+     * Adds the size of the index and its current snapshot to a footprint.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        // The index and the atomic reference to its snapshot
+        footprint.objects(2, VersibleFootprint.REFERENCE);
+        footprint.add(current.get());
+    }
+
+    /**
+     * An immutable, sorted view of the contents of a {@link VersibleVersionIndex} at a point in time.
+     */
+    public static final class Snapshot extends AbstractList<VersibleVersion> implements RandomAccess
+    {
+        private static final Snapshot EMPTY = of(new VersibleVersion[0][], new long[0][]);
+
+        private final VersibleVersion[][] segments;
+        /**
+         * The position of the first element of each segment, followed by the total size.
+         */
+        private final int[] offsets;
+        /**
+         * For each segment, the exclusive or of the {@linkplain VersibleSync#stableHash(VersibleVersion) stable hashes} of its first elements,
+         * for every count of elements from zero to the length of the segment. Computed on first use, and carried over to the snapshots derived from this one.
+         */
+        private final AtomicReferenceArray<long[]> hashes;
+        /**
+         * The exclusive or of the stable hashes of the segments before each segment, followed by the hash of every element. Computed on first use.
+         */
+        @Nullable
+        private volatile long[] segmentHashes;
+
+        private Snapshot(VersibleVersion[][] segments, int[] offsets, long[][] hashes)
+        {
+            this.segments = segments;
+            this.offsets = offsets;
+            this.hashes = new AtomicReferenceArray<>(hashes);
+        }
+
+        private static Snapshot of(VersibleVersion[][] segments, long[][] hashes)
+        {
+            int[] offsets = new int[segments.length + 1];
+            for (int i = 0; i < segments.length; i++)
+                offsets[i + 1] = offsets[i] + segments[i].length;
+            return new Snapshot(segments, offsets, hashes);
+        }
+
+        /**
+         * Adds the size of the snapshot, its segments and their hashes to a footprint.
+         */
+        void measureTo(VersibleFootprint footprint)
+        {
+            footprint.object(4 * VersibleFootprint.REFERENCE + Integer.BYTES);
+            footprint.add(segments);
+            footprint.add(offsets);
+            footprint.object(VersibleFootprint.REFERENCE);
+            footprint.array(hashes.length(), VersibleFootprint.REFERENCE);
+            for (int i = 0; i < hashes.length(); i++)
+                footprint.add(hashes.get(i));
+            footprint.add(segmentHashes);
+        }
+
+        @Override
+        public int size()
+        {
+            return offsets[segments.length];
+        }
+
+        @Override
+        public VersibleVersion get(int index)
+        {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            int segment = segmentAt(index);
+            return segments[segment][index - offsets[segment]];
+        }
+
+        /**
+         * Returns the exclusive or of the {@linkplain VersibleSync#stableHash(VersibleVersion) stable hashes} of the elements between two positions.
+         * Only the segments containing the two positions are read, and their hashes are computed once and kept by later snapshots.
+         *
+         * @param from The position of the first element, inclusive.
+         * @param to   The position after the last element, exclusive.
+         * @return The combined hash, or zero if there are no elements between the positions.
+         */
+        long stableHash(int from, int to)
+        {
+            if (from >= to)
+                return 0;
+            int first = segmentAt(from);
+            int last = segmentAt(to - 1);
+            var head = hashes(first);
+            if (first == last)
+                return head[from - offsets[first]] ^ head[to - offsets[first]];
+            var totals = segmentHashes();
+            var tail = hashes(last);
+            return head[from - offsets[first]] ^ head[head.length - 1] ^ totals[first + 1] ^ totals[last] ^ tail[to - offsets[last]];
+        }
+
+        private long[] hashes(int segment)
+        {
+            // Racing threads compute equal arrays, so either one can be kept
+            var prefix = hashes.get(segment);
+            if (prefix == null)
+            {
+                var elements = segments[segment];
+                prefix = new long[elements.length + 1];
+                for (int i = 0; i < elements.length; i++)
+                    prefix[i + 1] = prefix[i] ^ VersibleSync.stableHash(elements[i]);
+                hashes.set(segment, prefix);
+            }
+            return prefix;
+        }
+
+        private long[] segmentHashes()
+        {
+            var totals = segmentHashes;
+            if (totals == null)
+            {
+                totals = new long[segments.length + 1];
+                for (int i = 0; i < segments.length; i++)
+                {
+                    var prefix = hashes(i);
+                    totals[i + 1] = totals[i] ^ prefix[prefix.length - 1];
+                }
+                segmentHashes = totals;
+            }
+            return totals;
+        }
+
+        /**
+         * Returns the segment containing the element at the given position.
+         */
+        private int segmentAt(int index)
+        {
+            int segment = Arrays.binarySearch(offsets, 0, segments.length, index);
+            return segment >= 0 ? segment : -(segment + 1) - 1;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            if (!(o instanceof VersibleVersion version))
+                return false;
+            int segment = segmentFor(version);
+            return segment >= 0 && Arrays.binarySearch(segments[segment], version) >= 0;
+        }
+
+        /**
+         * Returns the highest version in the snapshot that is less than or equal to the given version.
+         *
+         * @param version The version to compare against.
+         * @return The matching version, or {@code null} if there is no such version.
+         */
+        @Nullable
+        public VersibleVersion floor(VersibleVersion version)
+        {
+            int position = upperBound(version);
+            return position > 0 ? get(position - 1) : null;
+        }
+
+        /**
+         * Returns the lowest version in the snapshot that is greater than or equal to the given version.
+         *
+         * @param version The version to compare against.
+         * @return The matching version, or {@code null} if there is no such version.
+         */
+        @Nullable
+        public VersibleVersion ceiling(VersibleVersion version)
+        {
+            int position = lowerBound(version);
+            return position < size() ? get(position) : null;
+        }
+
+        /**
+         * Returns the highest version in the snapshot that is contained in the given range.
+         *
+         * @param range The range to match.
+         * @return The matching version, or {@code null} if there is no such version.
+         */
+        @Nullable
+        public VersibleVersion newest(VersibleRange range)
+        {
+            int from = from(range);
+            int to = to(range);
+            return to > from ? get(to - 1) : null;
+        }
+
+        /**
+         * Returns the versions in the snapshot that are contained in the given range.
+         *
+         * @param range The range to match.
+         * @return An immutable view of the matching versions, in ascending order.
+         */
+        public List<VersibleVersion> matching(VersibleRange range)
+        {
+            int from = from(range);
+            int to = to(range);
+            return to > from ? subList(from, to) : List.of();
+        }
+
+        /**
+         * Returns the position of the first element contained in a range, or of the first element above it if there is none.
+         */
+        int from(VersibleRange range)
+        {
+            var min = range.minVersion();
+            if (min == null)
+                return 0;
+            return range.minExclusive() ? upperBound(min) : lowerBound(min);
+        }
+
+        /**
+         * Returns the position after the last element contained in a range, or of the first element above it if there is none.
+         */
+        int to(VersibleRange range)
+        {
+            var max = range.maxVersion();
+            if (max == null)
+                return size();
+            return range.maxExclusive() ? lowerBound(max) : upperBound(max);
+        }
+
+        /**
+         * Returns the number of elements strictly less than the given version.
+         */
+        private int lowerBound(VersibleVersion version)
+        {
+            int segment = segmentFor(version);
+            if (segment < 0)
+                return 0;
+            int index = Arrays.binarySearch(segments[segment], version);
+            return offsets[segment] + (index >= 0 ? index : -(index + 1));
+        }
+
+        /**
+         * Returns the number of elements less than or equal to the given version.
+         */
+        private int upperBound(VersibleVersion version)
+        {
+            int segment = segmentFor(version);
+            if (segment < 0)
+                return 0;
+            int index = Arrays.binarySearch(segments[segment], version);
+            return offsets[segment] + (index >= 0 ? index + 1 : -(index + 1));
+        }
+
+        /**
+         * Returns the last segment whose first element is less than or equal to the given version, or -1 if there is none.
+         */
+        private int segmentFor(VersibleVersion version)
+        {
+            int low = 0;
+            int high = segments.length - 1;
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
+                int c = segments[mid][0].compareTo(version);
+                if (c < 0)
+                    low = mid + 1;
+                else if (c > 0)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+            return low - 1;
+        }
+
+        private Snapshot with(VersibleVersion version)
+        {
+            if (segments.length == 0)
+                return of(new VersibleVersion[][]{{version}}, new long[1][]);
+
+            int segment = Math.max(segmentFor(version), 0);
+            var elements = segments[segment];
+            int index = Arrays.binarySearch(elements, version);
+            if (index >= 0)
+                return this;
+            index = -(index + 1);
+
+            var inserted = new VersibleVersion[elements.length + 1];
+            System.arraycopy(elements, 0, inserted, 0, index);
+            inserted[index] = version;
+            System.arraycopy(elements, index, inserted, index + 1, elements.length - index);
+
+            // Keep the hashes of the modified segment up to date if they were computed, so synchronization never hashes the whole index again
+            var prefix = hashes.get(segment);
+            long[] insertedHashes = null;
+            if (prefix != null)
+            {
+                long hash = VersibleSync.stableHash(version);
+                insertedHashes = new long[prefix.length + 1];
+                System.arraycopy(prefix, 0, insertedHashes, 0, index + 1);
+                for (int i = index + 1; i < insertedHashes.length; i++)
+                    insertedHashes[i] = prefix[i - 1] ^ hash;
+            }
+
+            var allHashes = copyHashes();
+            VersibleVersion[][] updated;
+            long[][] updatedHashes;
+            if (inserted.length > MAX_SEGMENT_SIZE)
+            {
+                int half = inserted.length / 2;
+                updated = new VersibleVersion[segments.length + 1][];
+                System.arraycopy(segments, 0, updated, 0, segment);
+                updated[segment] = Arrays.copyOfRange(inserted, 0, half);
+                updated[segment + 1] = Arrays.copyOfRange(inserted, half, inserted.length);
+                System.arraycopy(segments, segment + 1, updated, segment + 2, segments.length - segment - 1);
+                updatedHashes = new long[segments.length + 1][];
+                System.arraycopy(allHashes, 0, updatedHashes, 0, segment);
+                updatedHashes[segment] = slice(insertedHashes, 0, half);
+                updatedHashes[segment + 1] = slice(insertedHashes, half, inserted.length);
+                System.arraycopy(allHashes, segment + 1, updatedHashes, segment + 2, segments.length - segment - 1);
+            }
+            else
+            {
+                updated = segments.clone();
+                updated[segment] = inserted;
+                updatedHashes = allHashes;
+                updatedHashes[segment] = insertedHashes;
+            }
+            return of(updated, updatedHashes);
+        }
+
+        private Snapshot withAll(VersibleVersion[] sorted)
+        {
+            var merged = new VersibleVersion[size() + sorted.length];
+            // If every segment was hashed, the hashes are merged along with the versions, so only the added versions are hashed
+            boolean hashed = true;
+            for (int s = 0; s < segments.length && hashed; s++)
+                hashed = hashes.get(s) != null;
+            var mergedHashes = hashed && segments.length > 0 ? new long[merged.length] : null;
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            int size = size();
+            while (i < size || j < sorted.length)
+            {
+                boolean existing = j >= sorted.length || (i < size && get(i).compareTo(sorted[j]) <= 0);
+                var next = existing ? get(i) : sorted[j];
+                if (count == 0 || merged[count - 1].compareTo(next) != 0)
+                {
+                    if (mergedHashes != null)
+                        mergedHashes[count] = existing ? stableHash(i, i + 1) : VersibleSync.stableHash(next);
+                    merged[count++] = next;
+                }
+                if (existing)
+                    i++;
+                else
+                    j++;
+            }
+            if (count == size)
+                return this;
+
+            var updated = new VersibleVersion[(count + SEGMENT_SIZE - 1) / SEGMENT_SIZE][];
+            var updatedHashes = new long[updated.length][];
+            for (int s = 0; s < updated.length; s++)
+            {
+                int from = s * SEGMENT_SIZE;
+                int to = Math.min(count, (s + 1) * SEGMENT_SIZE);
+                updated[s] = Arrays.copyOfRange(merged, from, to);
+                if (mergedHashes != null)
+                {
+                    var prefix = new long[to - from + 1];
+                    for (int k = from; k < to; k++)
+                        prefix[k - from + 1] = prefix[k - from] ^ mergedHashes[k];
+                    updatedHashes[s] = prefix;
+                }
+            }
+            return of(updated, updatedHashes);
+        }
+
+        private Snapshot without(VersibleVersion version)
+        {
+            int segment = segmentFor(version);
+            if (segment < 0)
+                return this;
+            var elements = segments[segment];
+            int index = Arrays.binarySearch(elements, version);
+            if (index < 0)
+                return this;
+
+            var allHashes = copyHashes();
+            VersibleVersion[][] updated;
+            long[][] updatedHashes;
+            if (elements.length == 1)
+            {
+                updated = new VersibleVersion[segments.length - 1][];
+                System.arraycopy(segments, 0, updated, 0, segment);
+                System.arraycopy(segments, segment + 1, updated, segment, segments.length - segment - 1);
+                updatedHashes = new long[segments.length - 1][];
+                System.arraycopy(allHashes, 0, updatedHashes, 0, segment);
+                System.arraycopy(allHashes, segment + 1, updatedHashes, segment, segments.length - segment - 1);
+            }
+            else
+            {
+                var removed = new VersibleVersion[elements.length - 1];
+                System.arraycopy(elements, 0, removed, 0, index);
+                System.arraycopy(elements, index + 1, removed, index, elements.length - index - 1);
+                updated = segments.clone();
+                updated[segment] = removed;
+                updatedHashes = allHashes;
+                var prefix = allHashes[segment];
+                if (prefix != null)
+                {
+                    long hash = prefix[index + 1] ^ prefix[index];
+                    var removedHashes = new long[prefix.length - 1];
+                    System.arraycopy(prefix, 0, removedHashes, 0, index + 1);
+                    for (int i = index + 1; i < removedHashes.length; i++)
+                        removedHashes[i] = prefix[i + 1] ^ hash;
+                    updatedHashes[segment] = removedHashes;
+                }
+            }
+            return of(updated, updatedHashes);
+        }
+
+        /**
+         * Returns a copy of the hashes computed so far for every segment, with {@code null} for the segments that were not hashed.
+         */
+        private long[][] copyHashes()
+        {
+            var copy = new long[segments.length][];
+            for (int i = 0; i < copy.length; i++)
+                copy[i] = hashes.get(i);
+            return copy;
+        }
+
+        /**
+         * Returns the hashes of part of a segment, given the hashes of the whole segment.
+         */
+        @Nullable
+        private static long[] slice(@Nullable long[] prefix, int from, int to)
+        {
+            if (prefix == null)
+                return null;
+            var slice = new long[to - from + 1];
+            for (int i = 0; i <= to - from; i++)
+                slice[i] = prefix[from + i] ^ prefix[from];
+            return slice;
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package dev.gigaherz.versible;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A sorted set of versions, stored as a tree of components in which versions that share a prefix also share the nodes for that prefix.
+ * <p>
+ * The children of each node are ordered by {@code VersibleComponent.compareTo}, and the set is iterated in
+ * {@link VersibleVersion#compareTo(VersibleVersion)} order. Since a version followed by a negative suffix sorts before the version itself,
+ * the subtree below a negative suffix child is visited before its parent node, while every other child is visited after it.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class VersibleVersionTrie implements Iterable<VersibleVersion>
+{
+    private static final int BELOW = -1;
+    private static final int UNDECIDED = 0;
+    private static final int ABOVE = 1;
+
+    private final Node root = new Node(null);
+    private int size;
+    private int depth;
+
+    /**
+     * Adds a version to the trie.
+     *
+     * @param version The version to add.
+     * @return {@code true} if the version was not already present.
+     */
+    public boolean add(VersibleVersion version)
+    {
+        var node = root;
+        for (int i = 0; i < version.size(); i++)
+        {
+            var component = version.get(i);
+            int index = node.indexOf(component);
+            if (index < 0)
+            {
+                index = -(index + 1);
+                node.insert(index, new Node(component));
+            }
+            node = node.children[index];
+        }
+        if (node.terminal)
+            return false;
+        node.terminal = true;
+        size++;
+        depth = Math.max(depth, version.size());
+        return true;
+    }
+
+    /**
+     * Removes a version from the trie, pruning the nodes that are no longer shared with any other version.
+     *
+     * @param version The version to remove.
+     * @return {@code true} if the version was present.
+     */
+    public boolean remove(VersibleVersion version)
+    {
+        if (!remove(root, version, 0))
+            return false;
+        size--;
+        return true;
+    }
+
+    private static boolean remove(Node node, VersibleVersion version, int index)
+    {
+        if (index == version.size())
+        {
+            if (!node.terminal)
+                return false;
+            node.terminal = false;
+            return true;
+        }
+        int childIndex = node.indexOf(version.get(index));
+        if (childIndex < 0)
+            return false;
+        var child = node.children[childIndex];
+        if (!remove(child, version, index + 1))
+            return false;
+        if (!child.terminal && child.childCount == 0)
+            node.delete(childIndex);
+        return true;
+    }
+
+    /**
+     * Checks if a version is present in the trie.
+     *
+     * @param version The version to look for.
+     * @return {@code true} if the version is present.
+     */
+    public boolean contains(VersibleVersion version)
+    {
+        var node = root;
+        for (int i = 0; i < version.size(); i++)
+        {
+            int index = node.indexOf(version.get(i));
+            if (index < 0)
+                return false;
+            node = node.children[index];
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Returns the number of versions in the trie.
+     *
+     * @return The number of versions in the trie.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if the trie contains no versions.
+     *
+     * @return {@code true} if the trie is empty.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Adds the size of the nodes of the trie to a footprint.
+     */
+    void measureTo(VersibleFootprint footprint)
+    {
+        footprint.object(VersibleFootprint.REFERENCE + 2 * Integer.BYTES);
+        measureTo(root, footprint);
+    }
+
+    private static void measureTo(Node node, VersibleFootprint footprint)
+    {
+        footprint.object(2 * VersibleFootprint.REFERENCE + Integer.BYTES + 1);
+        footprint.add(node.component);
+        if (node.children != Node.EMPTY)
+            footprint.array(node.children.length, VersibleFootprint.REFERENCE);
+        for (int i = 0; i < node.childCount; i++)
+            measureTo(node.children[i], footprint);
+    }
+
+    /**
+     * Removes every version from the trie.
+     */
+    public void clear()
+    {
+        root.children = Node.EMPTY;
+        root.childCount = 0;
+        size = 0;
+        depth = 0;
+    }
+
+    /**
+     * Returns the lowest version in the trie.
+     *
+     * @return The lowest version, or {@code null} if the trie is empty.
+     */
+    @Nullable
+    public VersibleVersion first()
+    {
+        return findFirst(null, false, null, false);
+    }
+
+    /**
+     * Returns the highest version in the trie.
+     *
+     * @return The highest version, or {@code null} if the trie is empty.
+     */
+    @Nullable
+    public VersibleVersion last()
+    {
+        return findLast(null, false, null, false);
+    }
+
+    /**
+     * Returns the lowest version in the trie that is greater than or equal to the given version.
+     *
+     * @param version The version to compare against.
+     * @return The matching version, or {@code null} if there is no such version.
+     */
+    @Nullable
+    public VersibleVersion ceiling(VersibleVersion version)
+    {
+        return findFirst(version, false, null, false);
+    }
+
+    /**
+     * Returns the highest version in the trie that is less than or equal to the given version.
+     *
+     * @param version The version to compare against.
+     * @return The matching version, or {@code null} if there is no such version.
+     */
+    @Nullable
+    public VersibleVersion floor(VersibleVersion version)
+    {
+        return findLast(null, false, version, false);
+    }
+
+    /**
+     * Returns the versions in the trie that are contained in the given range, in ascending order.
+     * Subtrees that lie entirely outside the range are skipped without being visited.
+     *
+     * @param range The range to match.
+     * @return An unmodifiable list of the matching versions.
+     */
+    public List<VersibleVersion> matching(VersibleRange range)
+    {
+        List<VersibleVersion> list = new ArrayList<>();
+        forEachMatching(range, list::add);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Performs an action for each version in the trie that is contained in the given range, in ascending order.
+     *
+     * @param range  The range to match.
+     * @param action The action to perform.
+     */
+    public void forEachMatching(VersibleRange range, Consumer<? super VersibleVersion> action)
+    {
+        var query = new Query(range.minVersion(), range.minExclusive(), range.maxVersion(), range.maxExclusive(), v -> {
+            action.accept(v);
+            return true;
+        });
+        ascending(root, 0, query.initialMinState(), query.initialMaxState(), query);
+    }
+
+    @Override
+    public Iterator<VersibleVersion> iterator()
+    {
+        return new TrieIterator();
+    }
+
+    /**
+     * Returns a sequential {@code Stream} over the versions in the trie, in ascending order.
+     *
+     * @return A stream of versions.
+     */
+    public Stream<VersibleVersion> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    @Nullable
+    private VersibleVersion findFirst(@Nullable VersibleVersion min, boolean minExclusive, @Nullable VersibleVersion max, boolean maxExclusive)
+    {
+        VersibleVersion[] result = {null};
+        var query = new Query(min, minExclusive, max, maxExclusive, v -> {
+            result[0] = v;
+            return false;
+        });
+        ascending(root, 0, query.initialMinState(), query.initialMaxState(), query);
+        return result[0];
+    }
+
+    @Nullable
+    private VersibleVersion findLast(@Nullable VersibleVersion min, boolean minExclusive, @Nullable VersibleVersion max, boolean maxExclusive)
+    {
+        VersibleVersion[] result = {null};
+        var query = new Query(min, minExclusive, max, maxExclusive, v -> {
+            result[0] = v;
+            return false;
+        });
+        descending(root, 0, query.initialMinState(), query.initialMaxState(), query);
+        return result[0];
+    }
+
+    /**
+     * Visits the subtree in ascending order.
+     *
+     * @return {@code false} if the traversal should stop.
+     */
+    private boolean ascending(Node node, int depth, int minState, int maxState, Query query)
+    {
+        int first = 0;
+        if (minState == UNDECIDED && depth < query.min.size())
+        {
+            first = node.indexOf(query.min.get(depth));
+            if (first < 0)
+                first = -(first + 1);
+        }
+
+        boolean selfVisited = false;
+        for (int i = first; i < node.childCount; i++)
+        {
+            var child = node.children[i];
+            if (!selfVisited && !isNegativeSuffix(child.component))
+            {
+                selfVisited = true;
+                if (!ascendingSelf(node, depth, minState, maxState, query))
+                    return false;
+            }
+
+            int childMax = childState(maxState, query.max, depth, child.component);
+            if (childMax == ABOVE)
+                return false;
+            int childMin = childState(minState, query.min, depth, child.component);
+            if (childMin == BELOW)
+                continue;
+
+            query.path[depth] = child.component;
+            if (!ascending(child, depth + 1, childMin, childMax, query))
+                return false;
+        }
+        return selfVisited || ascendingSelf(node, depth, minState, maxState, query);
+    }
+
+    private boolean ascendingSelf(Node node, int depth, int minState, int maxState, Query query)
+    {
+        if (!node.terminal)
+            return true;
+        int maxComparison = selfComparison(maxState, query.max, depth);
+        if (maxComparison > 0 || (query.maxExclusive && maxComparison == 0))
+            return false;
+        int minComparison = selfComparison(minState, query.min, depth);
+        if (minComparison < 0 || (query.minExclusive && minComparison == 0))
+            return true;
+        return query.visitor.test(query.version(depth));
+    }
+
+    /**
+     * Visits the subtree in descending order.
+     *
+     * @return {@code false} if the traversal should stop.
+     */
+    private boolean descending(Node node, int depth, int minState, int maxState, Query query)
+    {
+        int last = node.childCount - 1;
+        if (maxState == UNDECIDED && depth < query.max.size())
+        {
+            last = node.indexOf(query.max.get(depth));
+            if (last < 0)
+                last = -(last + 1) - 1;
+        }
+
+        boolean selfVisited = false;
+        for (int i = last; i >= 0; i--)
+        {
+            var child = node.children[i];
+            if (!selfVisited && isNegativeSuffix(child.component))
+            {
+                selfVisited = true;
+                if (!descendingSelf(node, depth, minState, maxState, query))
+                    return false;
+            }
+
+            int childMin = childState(minState, query.min, depth, child.component);
+            if (childMin == BELOW)
+                return false;
+            int childMax = childState(maxState, query.max, depth, child.component);
+            if (childMax == ABOVE)
+                continue;
+
+            query.path[depth] = child.component;
+            if (!descending(child, depth + 1, childMin, childMax, query))
+                return false;
+        }
+        return selfVisited || descendingSelf(node, depth, minState, maxState, query);
+    }
+
+    private boolean descendingSelf(Node node, int depth, int minState, int maxState, Query query)
+    {
+        if (!node.terminal)
+            return true;
+        int minComparison = selfComparison(minState, query.min, depth);
+        if (minComparison < 0 || (query.minExclusive && minComparison == 0))
+            return false;
+        int maxComparison = selfComparison(maxState, query.max, depth);
+        if (maxComparison > 0 || (query.maxExclusive && maxComparison == 0))
+            return true;
+        return query.visitor.test(query.version(depth));
+    }
+
+    /**
+     * Determines how the subtree of a child relates to a bound, given the state of its parent.
+     * A parent in the undecided state has a path equal to the first {@code depth} components of the bound.
+     */
+    private static int childState(int state, @Nullable VersibleVersion bound, int depth, VersibleComponent component)
+    {
+        if (state != UNDECIDED || bound == null)
+            return state;
+        if (depth < bound.size())
+        {
+            int c = component.compareTo(bound.get(depth));
+            return c < 0 ? BELOW : c > 0 ? ABOVE : UNDECIDED;
+        }
+        return isNegativeSuffix(component) ? BELOW : ABOVE;
+    }
+
+    /**
+     * Compares the version ending at a node against a bound, given the state of the node.
+     */
+    private static int selfComparison(int state, @Nullable VersibleVersion bound, int depth)
+    {
+        if (state != UNDECIDED || bound == null)
+            return state;
+        if (depth == bound.size())
+            return 0;
+        return isNegativeSuffix(bound.get(depth)) ? ABOVE : BELOW;
+    }
+
+    private static boolean isNegativeSuffix(@Nullable VersibleComponent component)
+    {
+        return component instanceof VersibleComponent.Suffix s && !s.positive();
+    }
+
+    private static VersibleVersion toVersion(VersibleComponent[] path, int length)
+    {
+        return new VersibleVersion(Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(path, length))));
+    }
+
+    private final class Query
+    {
+        @Nullable
+        final VersibleVersion min;
+        final boolean minExclusive;
+        @Nullable
+        final VersibleVersion max;
+        final boolean maxExclusive;
+        final Predicate<VersibleVersion> visitor;
+        final VersibleComponent[] path = new VersibleComponent[depth];
+
+        Query(@Nullable VersibleVersion min, boolean minExclusive, @Nullable VersibleVersion max, boolean maxExclusive, Predicate<VersibleVersion> visitor)
+        {
+            this.min = min;
+            this.minExclusive = min != null && minExclusive;
+            this.max = max;
+            this.maxExclusive = max != null && maxExclusive;
+            this.visitor = visitor;
+        }
+
+        int initialMinState()
+        {
+            return min != null ? UNDECIDED : ABOVE;
+        }
+
+        int initialMaxState()
+        {
+            return max != null ? UNDECIDED : BELOW;
+        }
+
+        VersibleVersion version(int length)
+        {
+            return toVersion(path, length);
+        }
+    }
+
+    private static final class Node
+    {
+        static final Node[] EMPTY = new Node[0];
+
+        @Nullable
+        final VersibleComponent component;
+        Node[] children = EMPTY;
+        int childCount;
+        boolean terminal;
+
+        Node(@Nullable VersibleComponent component)
+        {
+            this.component = component;
+        }
+
+        /**
+         * Finds the child with the given component.
+         *
+         * @return The index of the child if present, otherwise {@code -(insertionPoint + 1)}.
+         */
+        int indexOf(VersibleComponent key)
+        {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
+                //noinspection DataFlowIssue
+                int c = children[mid].component.compareTo(key);
+                if (c < 0)
+                    low = mid + 1;
+                else if (c > 0)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+            return -(low + 1);
+        }
+
+        void insert(int index, Node child)
+        {
+            if (childCount == children.length)
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        void delete(int index)
+        {
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            children[--childCount] = null;
+        }
+    }
+
+    private class TrieIterator implements Iterator<VersibleVersion>
+    {
+        private Node[] nodes = new Node[depth + 1];
+        private int[] steps = new int[depth + 1];
+        private VersibleComponent[] path = new VersibleComponent[depth];
+        private int top;
+        @Nullable
+        private VersibleVersion next;
+
+        TrieIterator()
+        {
+            nodes[0] = root;
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        @Override
+        public VersibleVersion next()
+        {
+            var current = next;
+            if (current == null)
+                throw new NoSuchElementException();
+            next = advance();
+            return current;
+        }
+
+        /**
+         * Resumes the in-order walk. Each node goes through {@code childCount + 1} steps, one of which visits the node itself:
+         * the first step if it has no negative suffix child, the second otherwise.
+         */
+        @Nullable
+        private VersibleVersion advance()
+        {
+            while (top >= 0)
+            {
+                var node = nodes[top];
+                int step = steps[top]++;
+                if (step > node.childCount)
+                {
+                    top--;
+                    continue;
+                }
+                int selfStep = node.childCount > 0 && isNegativeSuffix(node.children[0].component) ? 1 : 0;
+                if (step == selfStep)
+                {
+                    if (node.terminal)
+                        return toVersion(path, top);
+                    continue;
+                }
+                var child = node.children[step < selfStep ? step : step - 1];
+                if (top == path.length)
+                {
+                    nodes = Arrays.copyOf(nodes, top + 2);
+                    steps = Arrays.copyOf(steps, top + 2);
+                    path = Arrays.copyOf(path, top + 1);
+                }
+                path[top] = child.component;
+                top++;
+                nodes[top] = child;
+                steps[top] = 0;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+import dev.gigaherz.versible.VersibleParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class BenchmarkTests
+{
+    @Test
+    public void testCorporaParse()
+    {
+        for (var kind : VersionCorpora.Kind.values())
+        {
+            for (var version : VersionCorpora.generate(kind, 500, 1))
+                Assertions.assertDoesNotThrow(() -> VersibleParser.parseVersion(version), version);
+        }
+    }
+
+    @Test
+    public void testReplay() throws IOException
+    {
+        var trace = WorkloadReplay.generate(VersionCorpora.Kind.MIXED, 2000, 1);
+
+        // Recorded traces replay the same operations
+        var file = Files.createTempFile("versible-trace", ".txt");
+        try
+        {
+            WorkloadReplay.save(trace, file);
+            Assertions.assertEquals(trace.stream().map(WorkloadReplay.Op::first).toList(), WorkloadReplay.load(file).stream().map(WorkloadReplay.Op::first).toList());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+
+        var stats = WorkloadReplay.replay(trace, 0);
+        Assertions.assertEquals(WorkloadReplay.OpKind.values().length, stats.size());
+        Assertions.assertEquals(trace.size(), stats.values().stream().mapToInt(WorkloadReplay.Stats::count).sum());
+        for (var s : stats.values())
+            Assertions.assertTrue(s.p50() <= s.p99() && s.p99() <= s.max());
+    }
+}
@@ -0,0 +1,132 @@
+import dev.gigaherz.versible.VersibleCollectors;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class CollectorTests
+{
+    @Test
+    public void testTopK()
+    {
+        var versions = Stream.of("1.0", "1.2", "2.0", "1.1", "1.2", "1.3-beta", "0.9")
+                .map(VersibleParser::parseVersion);
+        var top = versions.collect(VersibleCollectors.topK(3, VersibleParser.parseRange("[1.0,2.0)")));
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.3-beta"), VersibleParser.parseVersion("1.2"), VersibleParser.parseVersion("1.1")), top);
+
+        Assertions.assertEquals(List.of(), Stream.of(VersibleVersion.of(1)).collect(VersibleCollectors.topK(0, VersibleRange.atLeast(VersibleVersion.of(0)))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleCollectors.topK(-1, VersibleRange.atLeast(VersibleVersion.of(0))));
+    }
+
+    @Test
+    public void testTopKFromText()
+    {
+        var top = Stream.of("1.0", "01.2", "2.0", "1.1", "1.2", "1.3-beta", "0.9")
+                .collect(VersibleCollectors.topKFromText(2, VersibleParser.parseRange("1.*")));
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.3-beta"), VersibleParser.parseVersion("1.2")), top);
+
+        // Invalid strings are rejected, even when they could never make it into the result
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Stream.of("5.0", "0.1%")
+                .collect(VersibleCollectors.topKFromText(1, VersibleParser.parseRange("5.*"))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Stream.of("5.0", "99999999999999999999")
+                .collect(VersibleCollectors.topKFromText(1, VersibleParser.parseRange("5.*"))));
+    }
+
+    @Test
+    public void testTopKFromTextMatchesParsing()
+    {
+        var random = new Random(7);
+        String[] separators = {"", ".", "-", "+"};
+        for (int round = 0; round < 200; round++)
+        {
+            List<String> strings = new ArrayList<>();
+            for (int i = 0; i < 50; i++)
+            {
+                var b = new StringBuilder();
+                b.append(random.nextInt(12));
+                int length = random.nextInt(4);
+                for (int j = 0; j < length; j++)
+                {
+                    b.append(separators[random.nextInt(separators.length)]);
+                    b.append(random.nextBoolean() ? Integer.toString(random.nextInt(12)) : random.nextBoolean() ? "a" : "b");
+                }
+                if (random.nextInt(100) == 0)
+                    b.append('%');
+                strings.add(b.toString());
+            }
+            var range = new VersibleRange(VersibleVersion.of(random.nextInt(5)), random.nextBoolean(), VersibleVersion.of(5 + random.nextInt(5), 'a'), random.nextBoolean());
+            int k = random.nextInt(6);
+
+            List<VersibleVersion> expected;
+            try
+            {
+                expected = strings.stream().map(VersibleParser::parseVersion).filter(range).distinct()
+                        .sorted(Comparator.reverseOrder()).limit(k).toList();
+            }
+            catch (IllegalArgumentException e)
+            {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> strings.stream().collect(VersibleCollectors.topKFromText(k, range)), strings::toString);
+                continue;
+            }
+            Assertions.assertEquals(expected, strings.stream().collect(VersibleCollectors.topKFromText(k, range)), strings::toString);
+        }
+    }
+
+    @Test
+    public void testGroupByPrefix()
+    {
+        var groups = Stream.of("1.0", "1.0.1", "1.0.5", "1.1", "1.1.2", "2", "2.0.1")
+                .map(VersibleParser::parseVersion)
+                .collect(VersibleCollectors.groupByPrefix(2));
+        Assertions.assertEquals(4, groups.size());
+        Assertions.assertEquals(VersibleVersion.of(1, 0), groups.get(0).key());
+        Assertions.assertEquals(VersibleVersion.of(1, 0, 5), groups.get(0).max());
+        Assertions.assertEquals(3, groups.get(0).count());
+        Assertions.assertEquals(VersibleVersion.of(1, 1, 2), groups.get(1).max());
+        // "2" is shorter than the prefix, so it forms its own group
+        Assertions.assertEquals(VersibleVersion.of(2), groups.get(2).key());
+        Assertions.assertEquals(VersibleVersion.of(2, 0), groups.get(3).key());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Stream.of(VersibleVersion.of(2), VersibleVersion.of(1))
+                .collect(VersibleCollectors.groupByPrefix(1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleCollectors.groupByPrefix(0));
+    }
+
+    @Test
+    public void testGroupByRelease()
+    {
+        var versions = Stream.of("1.0-alpha", "1.0-beta", "1.0", "1.0+build", "1.1-rc1", "1.1")
+                .map(VersibleParser::parseVersion).toList();
+        var groups = versions.stream().collect(VersibleCollectors.groupByRelease());
+        Assertions.assertEquals(2, groups.size());
+        Assertions.assertEquals(VersibleVersion.of(1, 0), groups.get(0).key());
+        Assertions.assertEquals(versions.get(0), groups.get(0).min());
+        Assertions.assertEquals(versions.get(3), groups.get(0).max());
+        Assertions.assertEquals(4, groups.get(0).count());
+        Assertions.assertEquals(2, groups.get(1).count());
+
+        // Versions which start with a suffix have no release components, and form a group without a key
+        var suffixed = Stream.of(VersibleVersion.of('-', "a"), VersibleVersion.of('-', "b"), VersibleVersion.of(1))
+                .collect(VersibleCollectors.groupByRelease());
+        Assertions.assertEquals(2, suffixed.size());
+        Assertions.assertNull(suffixed.get(0).key());
+        Assertions.assertEquals(2, suffixed.get(0).count());
+        Assertions.assertEquals(VersibleVersion.of(1), suffixed.get(1).key());
+
+        // Splitting the stream must not split groups
+        var many = new ArrayList<VersibleVersion>();
+        for (int i = 0; i < 1000; i++)
+            many.add(VersibleVersion.of(i / 100, i % 100));
+        var parallel = many.parallelStream().collect(VersibleCollectors.groupByPrefix(1));
+        Assertions.assertEquals(many.stream().collect(VersibleCollectors.groupByPrefix(1)), parallel);
+        Assertions.assertEquals(10, parallel.size());
+        Assertions.assertEquals(100, parallel.get(9).count());
+    }
+}
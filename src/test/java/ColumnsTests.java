@@ -0,0 +1,77 @@
+import dev.gigaherz.versible.VersibleColumns;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ColumnsTests
+{
+    @Test
+    public void testFilterMatchesContains()
+    {
+        var random = new Random(43);
+        for (var kind : VersionCorpora.Kind.values())
+        {
+            var text = VersionCorpora.generate(kind, 1000, 43);
+            var versions = text.stream().map(VersibleParser::parseVersion).toList();
+            var columns = VersibleColumns.of(versions);
+            Assertions.assertEquals(versions.size(), columns.size());
+
+            for (int i = 0; i < 50; i++)
+            {
+                var range = VersibleParser.parseRange(VersionCorpora.rangeAround(text.get(random.nextInt(text.size())), text.get(random.nextInt(text.size())), random));
+                var result = columns.filter(range);
+                for (int row = 0; row < versions.size(); row++)
+                    Assertions.assertEquals(range.contains(versions.get(row)), result.get(row), range + " " + versions.get(row));
+            }
+        }
+    }
+
+    @Test
+    public void testFilter()
+    {
+        var columns = VersibleColumns.of(List.of(
+                VersibleVersion.of(1), VersibleVersion.of(1, 0), VersibleVersion.of(1, 0, 0, 0), VersibleVersion.of(1, 0, 0, 0, 0),
+                VersibleParser.parseVersion("1.0-beta"), VersibleVersion.of(1, 5), VersibleVersion.of(2)));
+        Assertions.assertEquals(2, columns.fallbackCount());
+        Assertions.assertEquals("{1, 2, 3, 5}", columns.filter(VersibleParser.parseRange("[1.0,2)")).toString());
+        Assertions.assertEquals("{0, 1, 2, 3, 4, 5}", columns.filter(VersibleParser.parseRange("(,1.5]")).toString());
+        Assertions.assertEquals("{2, 3, 5, 6}", columns.filter(VersibleParser.parseRange("(1.0,)")).toString());
+        // Bounds which cannot be stored in columns are compared as the prefix they sort next to
+        Assertions.assertEquals("{1, 2, 3, 5}", columns.filter(VersibleParser.parseRange("[1.0,2-alpha)")).toString());
+        Assertions.assertEquals("{0, 1, 2, 3, 4}", columns.filter(VersibleParser.parseRange("(,1.5-beta]")).toString());
+        Assertions.assertEquals("{2, 3, 5, 6}", columns.filter(VersibleParser.parseRange("[1.0+build,)")).toString());
+        Assertions.assertEquals("{3, 5, 6}", columns.filter(VersibleParser.parseRange("[1.0.0.0.0,)")).toString());
+    }
+
+    @Test
+    public void testApproximateRanges()
+    {
+        var versions = List.of(
+                VersibleVersion.of(0, 9), VersibleVersion.of(1), VersibleVersion.of(1, 0), VersibleVersion.of(1, 0, 5), VersibleVersion.of(1, 1),
+                VersibleVersion.of(1, 2, 3), VersibleVersion.of(1, 2, 3, 0), VersibleVersion.of(1, 2, 3, 1), VersibleVersion.of(1, 2, 4), VersibleVersion.of(2));
+        var columns = VersibleColumns.of(versions);
+        Assertions.assertEquals(0, columns.fallbackCount());
+
+        // "1.0" is [1.0,1.0.0-), which contains 1.0 but none of its extensions
+        Assertions.assertEquals("{2}", columns.filter(VersibleParser.parseRange("1.0")).toString());
+        Assertions.assertEquals("{5}", columns.filter(VersibleParser.parseRange("1.2.3")).toString());
+        var ranges = new ArrayList<VersibleRange>();
+        for (var text : List.of("1", "1.0", "1.2.3", "1.2.3.0", "(,1.0.0.0.1]", "[1.2-rc,1.2.3+build]"))
+            ranges.add(VersibleParser.parseRange(text));
+        ranges.add(VersibleRange.betweenClosedOpen(VersibleVersion.of(1, 0, '-'), VersibleVersion.of(2, '-')));
+        ranges.add(new VersibleRange(VersibleVersion.of(1, 0, '-'), true, VersibleVersion.of(1, 2, 3, '-'), false));
+        ranges.add(VersibleRange.atLeast(VersibleVersion.of(1, 2, 3, 0, 0, '-')));
+        for (var range : ranges)
+        {
+            var result = columns.filter(range);
+            for (int row = 0; row < versions.size(); row++)
+                Assertions.assertEquals(range.contains(versions.get(row)), result.get(row), range + " " + versions.get(row));
+        }
+    }
+}
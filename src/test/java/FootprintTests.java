@@ -0,0 +1,146 @@
+import dev.gigaherz.versible.VersibleFootprint;
+import dev.gigaherz.versible.VersibleFrontCodedList;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersiblePool;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleRangeTable;
+import dev.gigaherz.versible.VersibleVersion;
+import dev.gigaherz.versible.VersibleVersionIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class FootprintTests
+{
+    @Test
+    public void testValues()
+    {
+        // The version, the list and its array, and two numeric components
+        Assertions.assertEquals(16 + 24 + 24 + 2 * 24, VersibleFootprint.of(VersibleVersion.of(1, 0)));
+
+        // Parsed versions also retain their text, and words retain their string
+        Assertions.assertTrue(VersibleFootprint.of(VersibleParser.parseVersion("1.0")) > VersibleFootprint.of(VersibleVersion.of(1, 0)));
+        Assertions.assertTrue(VersibleFootprint.of(VersibleParser.parseVersion("1.0-beta")) > VersibleFootprint.of(VersibleParser.parseVersion("1.0")));
+
+        var range = VersibleParser.parseRange("[1.0,2.0)");
+        Assertions.assertEquals(24 + VersibleFootprint.of(range.minVersion()) + VersibleFootprint.of(range.maxVersion()), VersibleFootprint.of(range));
+
+        // Range bounds do not copy their text out of the range string
+        Assertions.assertTrue(VersibleFootprint.of(range.minVersion()) < VersibleFootprint.of(VersibleParser.parseVersion("1.0")));
+    }
+
+    @Test
+    public void testSharing()
+    {
+        var version = VersibleParser.parseVersion("1.2.3");
+        long single = VersibleFootprint.of(version);
+
+        // The same instance is counted once, however many times it is referenced
+        var repeated = new ArrayList<VersibleVersion>();
+        var copies = new ArrayList<VersibleVersion>();
+        var interned = new ArrayList<VersibleVersion>();
+        var pool = new VersiblePool();
+        for (int i = 0; i < 100; i++)
+        {
+            repeated.add(version);
+            copies.add(VersibleParser.parseVersion("1.2.3"));
+            interned.add(pool.intern(VersibleParser.parseVersion("1.2.3")));
+        }
+        long list = VersibleFootprint.of(repeated);
+        Assertions.assertTrue(list < single + 100 * VersibleFootprint.REFERENCE + 64);
+        Assertions.assertTrue(VersibleFootprint.of(copies) > 50 * single);
+        Assertions.assertEquals(list - single, VersibleFootprint.of(interned) - VersibleFootprint.of(interned.get(0)));
+
+        // Derived versions only cost the components that changed
+        var base = VersibleVersion.of(1, 2, 3, 4, 5, 6);
+        var derived = base.bump(5);
+        Assertions.assertTrue(VersibleFootprint.of(List.of(base, derived)) < VersibleFootprint.of(base) + VersibleFootprint.of(derived));
+
+        // Structures added to the same footprint share what they reference
+        long both = new VersibleFootprint().add(pool).add(interned).bytes();
+        Assertions.assertTrue(both < new VersibleFootprint().add(pool).bytes() + VersibleFootprint.of(interned));
+    }
+
+    @Test
+    public void testStructures()
+    {
+        var versions = new ArrayList<VersibleVersion>();
+        for (int i = 0; i < 1000; i++)
+            versions.add(VersibleVersion.of(1, i / 10, i % 10));
+
+        var index = new VersibleVersionIndex();
+        long empty = new VersibleFootprint().add(index).bytes();
+        index.addAll(versions);
+        Assertions.assertTrue(new VersibleFootprint().add(index).bytes() > empty + VersibleFootprint.of(versions) / 2);
+
+        // Encoded versions are smaller than the versions themselves
+        Assertions.assertTrue(new VersibleFootprint().add(VersibleFrontCodedList.of(versions)).bytes() < VersibleFootprint.of(versions) / 4);
+
+        // Rows share their bounds
+        var table = new VersibleRangeTable();
+        for (int i = 0; i < 100; i++)
+            table.add(VersibleRange.atLeast(versions.get(i % 2)));
+        Assertions.assertTrue(new VersibleFootprint().add(table).bytes() < 100 * VersibleFootprint.of(VersibleRange.atLeast(versions.get(0))));
+    }
+
+    @Test
+    public void testReporting() throws Exception
+    {
+        var index = new VersibleVersionIndex();
+        index.add(VersibleVersion.of(1, 0));
+        VersibleFootprint.register("test.index", index);
+        try
+        {
+            Assertions.assertEquals(Long.valueOf(new VersibleFootprint().add(index).bytes()), VersibleFootprint.report().get("test.index"));
+
+            // A structure which fails to be measured is left out, without affecting the others
+            var broken = new AbstractList<VersibleVersion>()
+            {
+                @Override
+                public VersibleVersion get(int index)
+                {
+                    throw new ConcurrentModificationException();
+                }
+
+                @Override
+                public int size()
+                {
+                    return 1;
+                }
+            };
+            VersibleFootprint.register("test.broken", broken);
+            var reported = VersibleFootprint.report();
+            Assertions.assertFalse(reported.containsKey("test.broken"));
+            Assertions.assertTrue(reported.containsKey("test.index"));
+            VersibleFootprint.unregister("test.broken");
+
+            var executor = Executors.newSingleThreadScheduledExecutor();
+            try
+            {
+                var received = new CompletableFuture<Map<String, Long>>();
+                var task = VersibleFootprint.schedule(executor, Duration.ofMillis(10), received::complete);
+                Assertions.assertTrue(received.get(10, TimeUnit.SECONDS).containsKey("test.index"));
+                task.cancel(false);
+                Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleFootprint.schedule(executor, Duration.ZERO, report -> {}));
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+        finally
+        {
+            VersibleFootprint.unregister("test.index");
+        }
+        Assertions.assertFalse(VersibleFootprint.report().containsKey("test.index"));
+    }
+}
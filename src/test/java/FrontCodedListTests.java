@@ -0,0 +1,70 @@
+import dev.gigaherz.versible.VersibleFrontCodedList;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class FrontCodedListTests
+{
+    @Test
+    public void testQueries()
+    {
+        var versions = new ArrayList<VersibleVersion>();
+        for (var s : List.of("1.0", "1.0.1", "1.1-beta", "1.1", "1.1", "2.0", "2.0+build123456", "3.0-alpha.2"))
+            versions.add(VersibleParser.parseVersion(s));
+        var list = VersibleFrontCodedList.of(versions, 3);
+
+        Assertions.assertEquals(new ArrayList<>(new TreeSet<>(versions)), list);
+        Assertions.assertEquals(7, list.size());
+        Assertions.assertEquals(VersibleParser.parseVersion("2.0+build123456"), list.get(5));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.0.1"), list.floor(VersibleParser.parseVersion("1.0.5")));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.1-beta"), list.ceiling(VersibleParser.parseVersion("1.0.5")));
+        // Words missing from the dictionary still compare correctly
+        Assertions.assertEquals(VersibleParser.parseVersion("1.1-beta"), list.floor(VersibleParser.parseVersion("1.1-gamma")));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.1-beta"), list.ceiling(VersibleParser.parseVersion("1.1-alpha")));
+        Assertions.assertNull(list.floor(VersibleParser.parseVersion("0.9")));
+        Assertions.assertNull(list.ceiling(VersibleParser.parseVersion("3.0")));
+        Assertions.assertTrue(list.contains(VersibleParser.parseVersion("2.0")));
+        Assertions.assertFalse(list.contains(VersibleParser.parseVersion("2.1")));
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.0.1"), VersibleParser.parseVersion("1.1-beta")),
+                list.matching(VersibleParser.parseRange("(1.0,1.1)")));
+        Assertions.assertEquals(List.of(), VersibleFrontCodedList.of(List.of()).matching(VersibleParser.parseRange("1.*")));
+    }
+
+    @Test
+    public void testAgainstTreeSet()
+    {
+        var random = new Random(42);
+        var set = new TreeSet<VersibleVersion>();
+        String[] words = {"alpha", "beta", "rc", "pre"};
+        for (int i = 0; i < 20000; i++)
+        {
+            var builder = VersibleVersion.builder().number(random.nextInt(5)).number(random.nextInt(30)).number(random.nextInt(100));
+            if (random.nextInt(4) == 0)
+                builder.suffix(false).word(words[random.nextInt(words.length)]).number(random.nextInt(10));
+            set.add(builder.build());
+        }
+        set.add(VersibleVersion.of(Long.MAX_VALUE));
+        var list = VersibleFrontCodedList.of(set);
+
+        Assertions.assertEquals(new ArrayList<>(set), list);
+        Assertions.assertEquals(new ArrayList<>(set), list.stream().toList());
+        for (int i = 0; i < 500; i++)
+        {
+            var probe = VersibleVersion.of(random.nextInt(6), random.nextInt(30), random.nextInt(100));
+            Assertions.assertEquals(set.floor(probe), list.floor(probe));
+            Assertions.assertEquals(set.ceiling(probe), list.ceiling(probe));
+
+            var range = VersibleParser.parseRange(random.nextInt(5) + "." + random.nextInt(30));
+            Assertions.assertEquals(set.stream().filter(range).toList(), list.matching(range));
+        }
+
+        // Each entry takes a few bytes, compared to well over a hundred for a materialized version
+        Assertions.assertTrue(list.encodedBytes() < set.size() * 8, () -> list.encodedBytes() + " bytes for " + set.size() + " versions");
+    }
+}
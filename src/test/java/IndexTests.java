@@ -0,0 +1,109 @@
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import dev.gigaherz.versible.VersibleVersionIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class IndexTests
+{
+    @Test
+    public void testQueries()
+    {
+        var index = new VersibleVersionIndex();
+        for (var s : List.of("1.0", "1.0.1", "1.1-beta", "1.1", "2.0"))
+            Assertions.assertTrue(index.add(VersibleParser.parseVersion(s)));
+        Assertions.assertFalse(index.add(VersibleParser.parseVersion("1.1")));
+
+        Assertions.assertEquals(VersibleParser.parseVersion("1.1-beta"), index.newest(VersibleParser.parseRange("[1.0,1.1)")));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.1"), index.newest(VersibleParser.parseRange("1.*")));
+        Assertions.assertNull(index.newest(VersibleParser.parseRange(">2.0")));
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.0.1"), VersibleParser.parseVersion("1.1-beta")),
+                index.matching(VersibleParser.parseRange("(1.0,1.1)")));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.0.1"), index.floor(VersibleParser.parseVersion("1.0.5")));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.1-beta"), index.ceiling(VersibleParser.parseVersion("1.0.5")));
+
+        var snapshot = index.snapshot();
+        Assertions.assertTrue(index.remove(VersibleParser.parseVersion("2.0")));
+        Assertions.assertFalse(index.contains(VersibleParser.parseVersion("2.0")));
+        Assertions.assertTrue(snapshot.contains(VersibleParser.parseVersion("2.0")));
+        Assertions.assertEquals(5, snapshot.size());
+        Assertions.assertEquals(4, index.size());
+    }
+
+    @Test
+    public void testAgainstTreeSet()
+    {
+        var random = new Random(42);
+        var index = new VersibleVersionIndex();
+        var set = new TreeSet<VersibleVersion>();
+        for (int i = 0; i < 5000; i++)
+        {
+            var v = VersibleVersion.of(random.nextInt(10), random.nextInt(30), random.nextInt(30));
+            Assertions.assertEquals(set.add(v), index.add(v));
+        }
+        List<VersibleVersion> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            batch.add(VersibleVersion.of(random.nextInt(10), random.nextInt(30), random.nextInt(30), '-', "rc"));
+        set.addAll(batch);
+        index.addAll(batch);
+        for (int i = 0; i < 1000; i++)
+        {
+            var v = VersibleVersion.of(random.nextInt(10), random.nextInt(30), random.nextInt(30));
+            Assertions.assertEquals(set.remove(v), index.remove(v));
+        }
+
+        Assertions.assertEquals(new ArrayList<>(set), index.stream().toList());
+        for (int i = 0; i < 200; i++)
+        {
+            var range = VersibleParser.parseRange(random.nextInt(10) + "." + random.nextInt(30));
+            var expected = set.stream().filter(range).toList();
+            Assertions.assertEquals(expected, index.matching(range));
+            Assertions.assertEquals(expected.isEmpty() ? null : expected.get(expected.size() - 1), index.newest(range));
+        }
+    }
+
+    @Test
+    public void testConcurrentSnapshots() throws InterruptedException
+    {
+        var index = new VersibleVersionIndex();
+        var failed = new AtomicBoolean();
+        var done = new AtomicBoolean();
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++)
+        {
+            int id = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++)
+                    index.add(VersibleVersion.of(i, id));
+            }));
+        }
+        var reader = new Thread(() -> {
+            while (!done.get())
+            {
+                VersibleVersion previous = null;
+                for (var v : index.snapshot())
+                {
+                    if (previous != null && previous.compareTo(v) >= 0)
+                        failed.set(true);
+                    previous = v;
+                }
+            }
+        });
+        reader.start();
+        writers.forEach(Thread::start);
+        for (var writer : writers)
+            writer.join();
+        done.set(true);
+        reader.join();
+
+        Assertions.assertFalse(failed.get());
+        Assertions.assertEquals(8000, index.size());
+    }
+}
@@ -0,0 +1,116 @@
+import dev.gigaherz.versible.VersibleCatalog;
+import dev.gigaherz.versible.VersibleLatestCache;
+import dev.gigaherz.versible.VersibleMetrics;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LatestCacheTests
+{
+    @Test
+    public void testInvalidation()
+    {
+        var catalog = VersibleCatalog.create()
+                .publish("lib", VersibleVersion.of(1, 0), Map.of())
+                .publish("lib", VersibleVersion.of(1, 1), Map.of())
+                .publish("lib", VersibleVersion.of(2, 0), Map.of());
+        var cache = new VersibleLatestCache(catalog, 100);
+        long hits = VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleLatestCache.CACHE));
+
+        var ones = VersibleParser.parseRange("[1,2)");
+        var twos = VersibleParser.parseRange("[2,3)");
+        var all = VersibleParser.parseRange("[1,)");
+        Assertions.assertEquals(VersibleVersion.of(1, 1), cache.newest("lib", ones));
+        Assertions.assertEquals(VersibleVersion.of(2, 0), cache.newest("lib", twos));
+        Assertions.assertEquals(VersibleVersion.of(2, 0), cache.newest("lib", all));
+        Assertions.assertNull(cache.newest("lib", VersibleParser.parseRange("[3,)")));
+        Assertions.assertEquals(VersibleVersion.of(1, 1), cache.newest("lib", VersibleParser.parseRange("[1,2)")));
+        Assertions.assertEquals(1, VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleLatestCache.CACHE)) - hits);
+        Assertions.assertEquals(4, cache.size());
+
+        // Only the ranges containing 1.2 are affected, and [1,) already had a newer result
+        catalog.publish("lib", VersibleVersion.of(1, 2), Map.of());
+        Assertions.assertEquals(1, cache.published("lib", VersibleVersion.of(1, 2)));
+        Assertions.assertEquals(VersibleVersion.of(1, 2), cache.newest("lib", ones));
+        Assertions.assertEquals(VersibleVersion.of(2, 0), cache.newest("lib", all));
+
+        catalog.publish("lib", VersibleVersion.of(3, 0), Map.of());
+        Assertions.assertEquals(2, cache.published("lib", VersibleVersion.of(3, 0)));
+        Assertions.assertEquals(VersibleVersion.of(3, 0), cache.newest("lib", all));
+        Assertions.assertEquals(VersibleVersion.of(3, 0), cache.newest("lib", VersibleParser.parseRange("[3,)")));
+
+        catalog.retract("lib", VersibleVersion.of(3, 0));
+        Assertions.assertEquals(2, cache.retracted("lib", VersibleVersion.of(3, 0)));
+        Assertions.assertEquals(VersibleVersion.of(2, 0), cache.newest("lib", all));
+        Assertions.assertEquals(VersibleVersion.of(2, 0), cache.newest("lib", twos));
+        Assertions.assertNull(cache.newest("lib", VersibleParser.parseRange("[3,)")));
+        Assertions.assertEquals(0, cache.published("other", VersibleVersion.of(1)));
+        Assertions.assertEquals(4, cache.invalidate("lib"));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEviction()
+    {
+        var catalog = VersibleCatalog.create().publish("lib", VersibleVersion.of(1), Map.of());
+        var cache = new VersibleLatestCache(catalog, 10);
+        var hot = VersibleParser.parseRange("[0,)");
+        for (int i = 0; i < 100; i++)
+        {
+            cache.newest("lib", hot);
+            cache.newest("lib", VersibleParser.parseRange("[" + i + ",)"));
+            Assertions.assertTrue(cache.size() <= 10);
+        }
+        long hits = VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleLatestCache.CACHE));
+        cache.newest("lib", hot);
+        Assertions.assertEquals(1, VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleLatestCache.CACHE)) - hits);
+    }
+
+    @Test
+    public void testConcurrentPublishing() throws Exception
+    {
+        var catalog = VersibleCatalog.create();
+        var cache = new VersibleLatestCache(catalog, 4);
+        var ranges = new ArrayList<VersibleRange>();
+        for (int major = 0; major < 8; major++)
+        {
+            catalog.publish("lib", VersibleVersion.of(major, 0), Map.of());
+            ranges.add(VersibleParser.parseRange("[" + major + "," + (major + 1) + ")"));
+        }
+
+        // Readers keep evicting and re-creating entries while versions are published
+        var done = new AtomicBoolean();
+        var readers = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++)
+        {
+            var reader = new Thread(() ->
+            {
+                for (int i = 0; !done.get(); i++)
+                    cache.newest("lib", ranges.get(i % ranges.size()));
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (int minor = 1; minor <= 200; minor++)
+        {
+            for (int major = 0; major < 8; major++)
+            {
+                var version = VersibleVersion.of(major, minor);
+                catalog.publish("lib", version, Map.of());
+                cache.published("lib", version);
+            }
+        }
+        done.set(true);
+        for (var reader : readers)
+            reader.join();
+
+        for (int major = 0; major < 8; major++)
+            Assertions.assertEquals(VersibleVersion.of(major, 200), cache.newest("lib", ranges.get(major)));
+    }
+}
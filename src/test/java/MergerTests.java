@@ -0,0 +1,63 @@
+import dev.gigaherz.versible.VersibleMerger;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class MergerTests
+{
+    @Test
+    public void testMerge()
+    {
+        var merged = new ArrayList<VersibleMerger.Entry>();
+        VersibleMerger.merge(List.of(
+                List.of(VersibleVersion.of(1), VersibleVersion.of(2), VersibleVersion.of(2), VersibleVersion.of(4)).iterator(),
+                List.<VersibleVersion>of().iterator(),
+                List.of(VersibleVersion.of(2), VersibleVersion.of(3), VersibleVersion.of(4), VersibleVersion.of(5)).iterator()
+        )).forEachRemaining(merged::add);
+
+        Assertions.assertEquals(List.of(VersibleVersion.of(1), VersibleVersion.of(2), VersibleVersion.of(3), VersibleVersion.of(4), VersibleVersion.of(5)),
+                merged.stream().map(VersibleMerger.Entry::version).toList());
+        Assertions.assertEquals(List.of(List.of(0), List.of(0, 2), List.of(2), List.of(0, 2), List.of(2)),
+                merged.stream().map(VersibleMerger.Entry::sources).toList());
+        Assertions.assertTrue(merged.get(1).foundIn(2));
+        Assertions.assertFalse(merged.get(1).foundIn(1));
+    }
+
+    @Test
+    public void testMergeText()
+    {
+        var merged = new ArrayList<VersibleMerger.Entry>();
+        VersibleMerger.mergeText(List.of(
+                List.of("1.0-beta", "1.0", "1.1").iterator(),
+                List.of("1.0-alpha", "01.0", "1.0+build", "2").iterator()
+        )).forEachRemaining(merged::add);
+
+        Assertions.assertEquals(List.of("1.0-alpha", "1.0-beta", "1.0", "1.0+build", "1.1", "2"),
+                merged.stream().map(entry -> entry.version().toString()).toList());
+        Assertions.assertEquals(List.of(0, 1), merged.get(2).sources());
+
+        // Each source is read one version ahead, so the error surfaces when the version before it is returned
+        Iterator<VersibleMerger.Entry> unsorted = VersibleMerger.mergeText(List.of(List.of("2", "1").iterator()));
+        Assertions.assertThrows(IllegalArgumentException.class, unsorted::next);
+    }
+
+    @Test
+    public void testMergeStreams()
+    {
+        var closed = new AtomicInteger();
+        try (var merged = VersibleMerger.mergeStreams(List.of(
+                Stream.of(VersibleVersion.of(1), VersibleVersion.of(3)).onClose(closed::incrementAndGet),
+                Stream.of(VersibleVersion.of(2), VersibleVersion.of(3)).onClose(closed::incrementAndGet))))
+        {
+            Assertions.assertEquals(List.of(VersibleVersion.of(1), VersibleVersion.of(2), VersibleVersion.of(3)),
+                    merged.map(VersibleMerger.Entry::version).toList());
+        }
+        Assertions.assertEquals(2, closed.get());
+    }
+}
@@ -0,0 +1,62 @@
+import dev.gigaherz.versible.VersibleMetrics;
+import dev.gigaherz.versible.VersibleParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsTests
+{
+    @Test
+    public void testParseCounters()
+    {
+        var metrics = VersibleMetrics.global();
+        long parsed = metrics.count(VersibleMetrics.VERSIONS_PARSED);
+        long failed = metrics.count(VersibleMetrics.VERSION_PARSE_FAILURES);
+
+        VersibleParser.parseVersion("1.0");
+        VersibleParser.parseVersion("1.0.1");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseVersion("1%1"));
+
+        Assertions.assertEquals(parsed + 2, metrics.count(VersibleMetrics.VERSIONS_PARSED));
+        Assertions.assertEquals(failed + 1, metrics.count(VersibleMetrics.VERSION_PARSE_FAILURES));
+        Assertions.assertEquals(parsed + 2, (long) metrics.snapshot().get(VersibleMetrics.VERSIONS_PARSED));
+    }
+
+    @Test
+    public void testHotConstraints()
+    {
+        var metrics = VersibleMetrics.global();
+        long failed = metrics.count(VersibleMetrics.RANGE_PARSE_FAILURES);
+
+        for (int i = 0; i < 1000; i++)
+            VersibleParser.parseRange("[1.0,2.0)");
+        VersibleParser.parseRange(">=3");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseRange(">>1"));
+
+        Assertions.assertEquals(failed + 1, metrics.count(VersibleMetrics.RANGE_PARSE_FAILURES));
+        var hottest = metrics.hotConstraints(1);
+        Assertions.assertEquals(1, hottest.size());
+        Assertions.assertEquals("[1.0,2.0)", hottest.get(0).getKey());
+        // Only a sample of the parses is counted, so the count is approximate
+        Assertions.assertTrue(hottest.get(0).getValue() > 500);
+    }
+
+    @Test
+    public void testHotConstraintsAfterManyDistinct()
+    {
+        var metrics = VersibleMetrics.global();
+
+        // More distinct constraints than can be tracked are seen first, and a constraint which only becomes hot later must still be reported
+        for (int i = 0; i < 3000; i++)
+            VersibleParser.parseRange("[1.0," + (i + 2) + ".0)");
+        for (int i = 0; i < 5000; i++)
+        {
+            VersibleParser.parseRange("[7.7,8.8)");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseRange(">>7"));
+        }
+
+        var hot = metrics.hotConstraints(Integer.MAX_VALUE);
+        Assertions.assertTrue(hot.stream().anyMatch(e -> e.getKey().equals("[7.7,8.8)") && e.getValue() > 2500));
+        Assertions.assertTrue(hot.stream().noneMatch(e -> e.getKey().equals(">>7")));
+        Assertions.assertTrue(hot.size() <= 1024);
+    }
+}
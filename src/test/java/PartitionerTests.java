@@ -0,0 +1,69 @@
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersiblePartitioner;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class PartitionerTests
+{
+    @Test
+    public void testBalancedShards()
+    {
+        // Heavily skewed: almost everything is in the 1.x line
+        var random = new Random(99);
+        List<VersibleVersion> versions = new ArrayList<>();
+        for (int i = 0; i < 10000; i++)
+            versions.add(random.nextInt(100) == 0 ? VersibleVersion.of(random.nextInt(5), random.nextInt(10)) : VersibleVersion.of(1, random.nextInt(50), random.nextInt(50)));
+
+        var partitioner = VersiblePartitioner.fromSample(versions.subList(0, 1000), 8);
+        Assertions.assertEquals(8, partitioner.shards());
+
+        int[] counts = new int[partitioner.shards()];
+        for (var v : versions)
+        {
+            int shard = partitioner.shardOf(v);
+            counts[shard]++;
+            var range = partitioner.rangeOf(shard);
+            Assertions.assertNotNull(range);
+            Assertions.assertTrue(range.contains(v), () -> range + " should contain " + v);
+        }
+        for (int count : counts)
+            Assertions.assertTrue(count > versions.size() / 16 && count < versions.size() / 4, () -> "Unbalanced shard size " + count);
+    }
+
+    @Test
+    public void testRangeRouting()
+    {
+        var partitioner = VersiblePartitioner.of(List.of(VersibleVersion.of(1), VersibleVersion.of(2), VersibleVersion.of(3)));
+        Assertions.assertEquals(List.of(2), shards(partitioner, VersibleParser.parseRange("[2,3)")));
+        Assertions.assertEquals(List.of(2, 3), shards(partitioner, VersibleParser.parseRange("[2,3]")));
+        Assertions.assertEquals(List.of(0, 1), shards(partitioner, VersibleParser.parseRange("<2")));
+        Assertions.assertEquals(List.of(1, 2, 3), shards(partitioner, VersibleParser.parseRange(">1")));
+        Assertions.assertEquals(List.of(1), shards(partitioner, VersibleParser.parseRange("1.5")));
+
+        var random = new Random(5);
+        for (int i = 0; i < 1000; i++)
+        {
+            var v = VersibleVersion.of(random.nextInt(5), random.nextInt(3));
+            var range = VersibleRange.between(VersibleVersion.of(random.nextInt(3)), VersibleVersion.of(2 + random.nextInt(3)));
+            var routed = Set.copyOf(shards(partitioner, range));
+            if (range.contains(v))
+                Assertions.assertTrue(routed.contains(partitioner.shardOf(v)));
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersiblePartitioner.of(List.of(VersibleVersion.of(2), VersibleVersion.of(1))));
+        Assertions.assertNull(VersiblePartitioner.fromSample(List.of(), 4).rangeOf(0));
+    }
+
+    private static List<Integer> shards(VersiblePartitioner partitioner, VersibleRange range)
+    {
+        return partitioner.shardsFor(range).boxed().collect(Collectors.toList());
+    }
+}
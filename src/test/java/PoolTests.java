@@ -0,0 +1,66 @@
+import dev.gigaherz.versible.VersibleMetrics;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersiblePool;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PoolTests
+{
+    @Test
+    public void testInterning()
+    {
+        var pool = new VersiblePool();
+        long hits = VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersiblePool.VERSIONS));
+
+        // Equal values built through different paths share one instance
+        var canonical = pool.intern(VersibleParser.parseVersion("1.0"));
+        Assertions.assertSame(canonical, pool.intern(VersibleParser.parseVersion("01.0")));
+        Assertions.assertSame(canonical, pool.intern(VersibleVersion.of(1, 0)));
+        Assertions.assertSame(canonical, pool.intern(VersibleVersion.of(1).append(0)));
+        Assertions.assertSame(canonical, pool.intern(VersibleVersion.of(0, 0).bump(0)));
+        Assertions.assertSame(canonical, pool.intern(VersibleParser.parseVersionLazy("1.0")));
+        Assertions.assertNotSame(canonical, pool.intern(VersibleVersion.of(1, 0, 0)));
+        Assertions.assertEquals(5, VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersiblePool.VERSIONS)) - hits);
+
+        // Interned values are still equal to, and hash like, values outside the pool
+        Assertions.assertEquals(VersibleVersion.of(1, 0), canonical);
+        Assertions.assertEquals(canonical, VersibleVersion.of(1, 0));
+        Assertions.assertEquals(VersibleVersion.of(1, 0).hashCode(), canonical.hashCode());
+        Assertions.assertEquals("1.0", canonical.toString());
+
+        var range = pool.intern(VersibleParser.parseRange("[1.0,2.0)"));
+        Assertions.assertSame(range, pool.intern(VersibleRange.betweenClosedOpen(VersibleVersion.of(1, 0), VersibleVersion.of(2, 0))));
+        Assertions.assertSame(canonical, range.minVersion());
+        Assertions.assertEquals(VersibleParser.parseRange("[1.0,2.0)").hashCode(), range.hashCode());
+        Assertions.assertNotEquals(VersibleParser.parseRange("(1.0,2.0)").hashCode(), range.hashCode());
+        Assertions.assertSame(pool.intern(VersibleRange.atMost(VersibleVersion.of(3))), pool.intern(new VersibleRange(null, false, VersibleVersion.of(3), false)));
+    }
+
+    @Test
+    public void testWeakness() throws InterruptedException
+    {
+        var pool = new VersiblePool();
+        List<VersibleVersion> kept = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            var version = pool.intern(VersibleVersion.of(i));
+            if (i % 10 == 0)
+                kept.add(version);
+        }
+        Assertions.assertEquals(1000, pool.size());
+
+        for (int attempt = 0; attempt < 50 && pool.size() > kept.size(); attempt++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(kept.size(), pool.size());
+        for (var version : kept)
+            Assertions.assertSame(version, pool.intern(VersibleVersion.of(version.get(0))));
+    }
+}
@@ -0,0 +1,67 @@
+import dev.gigaherz.versible.VersibleMetrics;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleQuery;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class QueryTests
+{
+    @Test
+    public void testStrategies()
+    {
+        var versions = new ArrayList<VersibleVersion>();
+        for (int i = 0; i < 1000; i++)
+            versions.add(VersibleVersion.of(i / 100, i % 100));
+        versions.add(VersibleParser.parseVersion("5.5-beta"));
+        Collections.shuffle(versions, new Random(44));
+
+        var query = VersibleQuery.of(versions);
+        var range = VersibleParser.parseRange("[5.5,6)");
+        long sortedQueries = VersibleMetrics.global().count(VersibleMetrics.queries(VersibleQuery.Strategy.SORTED_INDEX));
+
+        var expected = versions.stream().filter(range).sorted().toList();
+        Assertions.assertEquals(expected, query.matching(range));
+        Assertions.assertEquals(VersibleQuery.Strategy.LINEAR_SCAN, query.statistics().strategy());
+        Assertions.assertEquals(expected, query.matching(range));
+        Assertions.assertEquals(VersibleQuery.Strategy.COLUMNAR_FILTER, query.statistics().strategy());
+        for (int i = 0; i < 8; i++)
+        {
+            Assertions.assertEquals(expected, query.matching(range));
+            Assertions.assertEquals(expected.size(), query.count(range));
+            Assertions.assertEquals(VersibleVersion.of(5, 99), query.newest(range));
+        }
+        Assertions.assertNull(query.newest(VersibleParser.parseRange("[20,)")));
+
+        var statistics = query.statistics();
+        Assertions.assertEquals(1001, statistics.size());
+        Assertions.assertFalse(statistics.sorted());
+        Assertions.assertEquals(27, statistics.queries());
+        Assertions.assertEquals(VersibleQuery.Strategy.SORTED_INDEX, statistics.strategy());
+        Assertions.assertEquals(List.of(VersibleQuery.Strategy.LINEAR_SCAN, VersibleQuery.Strategy.COLUMNAR_FILTER, VersibleQuery.Strategy.SORTED_INDEX),
+                query.decisions().stream().map(VersibleQuery.Decision::strategy).toList());
+        Assertions.assertEquals(10, query.decisions().get(2).query());
+        Assertions.assertEquals(18, VersibleMetrics.global().count(VersibleMetrics.queries(VersibleQuery.Strategy.SORTED_INDEX)) - sortedQueries);
+    }
+
+    @Test
+    public void testInitialStrategy()
+    {
+        var small = VersibleQuery.of(List.of(VersibleVersion.of(2), VersibleVersion.of(1)));
+        Assertions.assertEquals(VersibleQuery.Strategy.LINEAR_SCAN, small.statistics().strategy());
+        Assertions.assertEquals(List.of(VersibleVersion.of(1), VersibleVersion.of(2)), small.matching(VersibleParser.parseRange("[1,)")));
+
+        var sorted = new ArrayList<VersibleVersion>();
+        for (int i = 0; i < 100; i++)
+            sorted.add(VersibleVersion.of(i));
+        var query = VersibleQuery.of(sorted);
+        Assertions.assertEquals(VersibleQuery.Strategy.SORTED_INDEX, query.statistics().strategy());
+        Assertions.assertEquals(sorted.subList(10, 21), query.matching(VersibleParser.parseRange("[10,20]")));
+        Assertions.assertEquals(9, query.count(VersibleParser.parseRange("(10,20)")));
+    }
+}
@@ -0,0 +1,99 @@
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleRangeTable;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RangeTableTests
+{
+    @Test
+    public void testTable()
+    {
+        var ranges = List.of(
+                VersibleParser.parseRange("1.0"), VersibleParser.parseRange("1.0"), VersibleParser.parseRange("[1.0,2.0)"),
+                VersibleParser.parseRange("(,1.0]"), VersibleParser.parseRange(">1.0"), VersibleParser.parseRange("=2.0"));
+        var table = VersibleRangeTable.of(ranges);
+        Assertions.assertEquals(6, table.size());
+        // 1.0, the approximate upper bound of 1.0, and 2.0
+        Assertions.assertEquals(3, table.distinctBounds());
+        for (int row = 0; row < ranges.size(); row++)
+            Assertions.assertEquals(ranges.get(row), table.get(row));
+
+        Assertions.assertEquals("{0, 1, 2, 3}", table.contains(VersibleVersion.of(1, 0)).toString());
+        Assertions.assertEquals("{2, 4}", table.contains(VersibleVersion.of(1, 0, 5)).toString());
+        Assertions.assertEquals("{4, 5}", table.contains(VersibleVersion.of(2, 0)).toString());
+        Assertions.assertEquals("{3}", table.contains(VersibleVersion.of(0, 9)).toString());
+        Assertions.assertTrue(table.contains(5, VersibleVersion.of(2, 0)));
+        Assertions.assertFalse(table.contains(5, VersibleVersion.of(2, 0, 0)));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> table.get(6));
+    }
+
+    @Test
+    public void testContainsMatchesRanges()
+    {
+        var random = new Random(48);
+        var text = VersionCorpora.generate(VersionCorpora.Kind.MIXED, 300, 48);
+        var ranges = new ArrayList<VersibleRange>();
+        var table = new VersibleRangeTable();
+        for (int i = 0; i < 2000; i++)
+        {
+            var range = VersibleParser.parseRange(VersionCorpora.rangeAround(text.get(random.nextInt(text.size())), text.get(random.nextInt(text.size())), random));
+            ranges.add(range);
+            table.add(range);
+            if (i % 500 == 0)
+            {
+                // Adding bounds after a query must invalidate the sorted bounds
+                table.contains(VersibleParser.parseVersion(text.get(0)));
+            }
+        }
+        Assertions.assertTrue(table.distinctBounds() < 2 * text.size() + 10);
+
+        for (var versionText : text.subList(0, 100))
+        {
+            var version = VersibleParser.parseVersion(versionText);
+            var result = table.contains(version);
+            for (int row = 0; row < ranges.size(); row++)
+            {
+                Assertions.assertEquals(ranges.get(row).contains(version), result.get(row), ranges.get(row) + " " + version);
+                Assertions.assertEquals(ranges.get(row).contains(version), table.contains(row, version));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception
+    {
+        for (int round = 0; round < 200; round++)
+        {
+            var table = new VersibleRangeTable();
+            for (int i = 0; i < 50; i++)
+                table.add(VersibleRange.atLeast(VersibleVersion.of(i)));
+
+            // The first readers of a new table race to sort its bounds
+            var version = VersibleVersion.of(25);
+            var readers = new ArrayList<Thread>();
+            var failures = new ArrayList<Throwable>();
+            for (int t = 0; t < 4; t++)
+            {
+                var reader = new Thread(() -> Assertions.assertEquals(26, table.contains(version).cardinality()));
+                reader.setUncaughtExceptionHandler((thread, e) ->
+                {
+                    synchronized (failures)
+                    {
+                        failures.add(e);
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+            for (var reader : readers)
+                reader.join();
+            Assertions.assertEquals(List.of(), failures);
+        }
+    }
+}
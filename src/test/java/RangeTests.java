@@ -4,6 +4,9 @@ import dev.gigaherz.versible.VersibleVersion;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public class RangeTests
 {
     @Test
@@ -46,6 +49,10 @@ public class RangeTests
         // Wildcard
         Assertions.assertEquals(r3, VersibleParser.parseRange("1.*"));
 
+        // Versions ending in a single character after a change between numbers and letters
+        Assertions.assertEquals(VersibleRange.approximately(VersibleVersion.of(1,0,'-',"rc",5)), VersibleParser.parseRange("1.0-rc5"));
+        Assertions.assertEquals(VersibleRange.betweenClosedOpen(VersibleVersion.of(1,0,"a"), b), VersibleParser.parseRange("[1.0a,2.0)"));
+
         // Invalid
         Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseRange("[,]"));
         Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseRange(">>1"));
@@ -55,6 +62,21 @@ public class RangeTests
         Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseRange("1%1"));
     }
 
+    @Test
+    public void testRendering()
+    {
+        for (var text : new String[]{"[1.0,2.0]", "(1.0,2.0)", "[1.0,2.0)", "(1.0,2.0]", "[1.0,)", "(1.0,)", "(,2.0]", "(,2.0)"})
+        {
+            var range = VersibleParser.parseRange(text);
+            Assertions.assertEquals(text, range.toString());
+            Assertions.assertEquals(range, VersibleParser.parseRange(range.toString()));
+        }
+
+        var buffer = ByteBuffer.allocate(32);
+        VersibleParser.parseRange("1.*").writeTo(buffer);
+        Assertions.assertEquals("[1.0,2.0)", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void testContains()
     {
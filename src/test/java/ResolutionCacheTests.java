@@ -0,0 +1,139 @@
+import dev.gigaherz.versible.VersibleCatalog;
+import dev.gigaherz.versible.VersibleFingerprint;
+import dev.gigaherz.versible.VersibleMetrics;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleResolutionCache;
+import dev.gigaherz.versible.VersibleResolver;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ResolutionCacheTests
+{
+    @Test
+    public void testFingerprint()
+    {
+        var a = VersibleParser.parseRange("[1.0,2.0)");
+        var b = VersibleParser.parseRange("<=3");
+        var catalog = List.of(VersibleVersion.of(1, 5), VersibleVersion.of(2, 1));
+
+        // Order and duplicates do not matter
+        var fingerprint = VersibleFingerprint.of(List.of(a, b), catalog);
+        Assertions.assertEquals(fingerprint, VersibleFingerprint.of(List.of(b, a, b), List.of(catalog.get(1), catalog.get(0))));
+        Assertions.assertNotEquals(fingerprint, VersibleFingerprint.of(List.of(a), catalog));
+        Assertions.assertNotEquals(fingerprint, VersibleFingerprint.of(List.of(a, VersibleParser.parseRange("<=4")), catalog));
+        Assertions.assertNotEquals(fingerprint, VersibleFingerprint.of(List.of(a, b), List.of(VersibleVersion.of(1, 5))));
+        Assertions.assertNotEquals(VersibleFingerprint.builder().constraint("x", a).build(), VersibleFingerprint.builder().constraint("y", a).build());
+
+        // Fixed value, so accidental changes to the canonical form are caught
+        Assertions.assertEquals("00524f4c0f4232298004b86849bc5fab", fingerprint.toString());
+
+        // Ranges which differ only in their upper bound hash differently
+        Assertions.assertNotEquals(VersibleRange.atMost(VersibleVersion.of(1)).hashCode(), VersibleRange.atMost(VersibleVersion.of(2)).hashCode());
+    }
+
+    @Test
+    public void testPersistence() throws IOException
+    {
+        var file = Files.createTempFile("versible-cache", ".bin");
+        Files.delete(file);
+        try
+        {
+            var first = VersibleFingerprint.of(List.of(VersibleParser.parseRange("1.*")), List.of(VersibleVersion.of(1, 2)));
+            var second = VersibleFingerprint.of(List.of(VersibleParser.parseRange("2.*")), List.of(VersibleVersion.of(2, 0)));
+            var result = Map.of("core", VersibleParser.parseVersion("1.2"), "extra", VersibleParser.parseVersion("0.9-beta"));
+
+            try (var cache = VersibleResolutionCache.open(file))
+            {
+                long hits = VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleResolutionCache.CACHE));
+                long misses = VersibleMetrics.global().count(VersibleMetrics.cacheMisses(VersibleResolutionCache.CACHE));
+                Assertions.assertNull(cache.get(first));
+                Assertions.assertEquals(result, cache.computeIfAbsent(first, f -> result));
+                Assertions.assertEquals(result, cache.computeIfAbsent(first, f -> { throw new AssertionError("Should be cached"); }));
+                Assertions.assertEquals(1, VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleResolutionCache.CACHE)) - hits);
+                Assertions.assertEquals(2, VersibleMetrics.global().count(VersibleMetrics.cacheMisses(VersibleResolutionCache.CACHE)) - misses);
+                Assertions.assertFalse(cache.put(first, Map.of()));
+
+                // Grow past the initial mapping
+                for (int i = 0; i < 5000; i++)
+                {
+                    Map<String, VersibleVersion> big = new HashMap<>();
+                    for (int j = 0; j < 5; j++)
+                        big.put("package" + j, VersibleVersion.of(i, j));
+                    Assertions.assertTrue(cache.put(new VersibleFingerprint(i, 1), big));
+                }
+            }
+
+            try (var cache = VersibleResolutionCache.open(file))
+            {
+                Assertions.assertEquals(5001, cache.size());
+                Assertions.assertEquals(result, cache.get(first));
+                Assertions.assertEquals(VersibleVersion.of(4321, 3), cache.get(new VersibleFingerprint(4321, 1)).get("package3"));
+                Assertions.assertTrue(cache.put(second, Map.of("core", VersibleVersion.of(2, 0))));
+            }
+
+            // Corrupt the last record, as if the process had crashed while writing it
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+            {
+                var bytes = ByteBuffer.allocate((int) channel.size());
+                channel.read(bytes, 0);
+                int last = -1;
+                for (int i = 8; i + 4 <= bytes.capacity(); i++)
+                {
+                    if (bytes.getInt(i) == 0x52455331 && bytes.getLong(i + 4) == second.high())
+                        last = i;
+                }
+                Assertions.assertTrue(last > 0);
+                channel.write(ByteBuffer.wrap(new byte[]{42}), last + 30);
+            }
+
+            try (var cache = VersibleResolutionCache.open(file))
+            {
+                Assertions.assertEquals(5001, cache.size());
+                Assertions.assertNull(cache.get(second));
+                Assertions.assertEquals(result, cache.get(first));
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testUnsatisfiable() throws IOException
+    {
+        var file = Files.createTempFile("versible-cache", ".bin");
+        Files.delete(file);
+        try
+        {
+            var catalog = VersibleCatalog.create().publish("core", VersibleVersion.of(1, 0), Map.of());
+            var requirements = Map.of("core", VersibleParser.parseRange("[2.0,)"));
+            var fingerprint = VersibleFingerprint.of(List.of(requirements.get("core")), catalog.versions("core"));
+
+            try (var cache = VersibleResolutionCache.open(file))
+            {
+                // Negative results are returned but not stored, so the resolver runs again
+                Assertions.assertNull(cache.computeIfAbsent(fingerprint, f -> VersibleResolver.resolve(catalog, requirements)));
+                Assertions.assertEquals(0, cache.size());
+                Assertions.assertNull(cache.get(fingerprint));
+                var resolved = Map.of("core", VersibleVersion.of(2, 0));
+                Assertions.assertEquals(resolved, cache.computeIfAbsent(fingerprint, f -> resolved));
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+}
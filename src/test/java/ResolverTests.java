@@ -0,0 +1,185 @@
+import dev.gigaherz.versible.VersibleCatalog;
+import dev.gigaherz.versible.VersibleMetrics;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleResolver;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class ResolverTests
+{
+    private static VersibleCatalog.Mutable catalog()
+    {
+        return VersibleCatalog.create()
+                .publish("lib", VersibleVersion.of(1, 0), Map.of())
+                .publish("lib", VersibleVersion.of(1, 1), Map.of())
+                .publish("lib", VersibleVersion.of(2, 0), Map.of())
+                .publish("core", VersibleVersion.of(1, 0), Map.of("lib", VersibleParser.parseRange("[1.0,2.0)")))
+                .publish("core", VersibleVersion.of(2, 0), Map.of("lib", VersibleParser.parseRange("[2.0,)"), "util", VersibleParser.parseRange("[5,)")))
+                .publish("util", VersibleVersion.of(4), Map.of());
+    }
+
+    @Test
+    public void testResolve()
+    {
+        var catalog = catalog();
+
+        // core 2.0 needs util 5, which does not exist, so the search backtracks to core 1.0
+        Assertions.assertEquals(Map.of("core", VersibleVersion.of(1, 0), "lib", VersibleVersion.of(1, 1)),
+                VersibleResolver.resolve(catalog, Map.of("core", VersibleParser.parseRange("[1,)"))));
+        Assertions.assertEquals(Map.of("lib", VersibleVersion.of(2, 0)),
+                VersibleResolver.resolve(catalog, Map.of("lib", VersibleParser.parseRange("[1,)"))));
+        Assertions.assertNull(VersibleResolver.resolve(catalog, Map.of("core", VersibleParser.parseRange("[1,)"), "lib", VersibleParser.parseRange("[2,)"))));
+        Assertions.assertNull(VersibleResolver.resolve(catalog, Map.of("missing", VersibleParser.parseRange("[1,)"))));
+    }
+
+    @Test
+    public void testResolveInDependencyOrder()
+    {
+        // Either b or c can take its newest version, but not both, so the first dependency visited wins
+        var one = VersibleParser.parseRange("[1,1]");
+        var any = VersibleParser.parseRange("[1,)");
+        for (var first : new String[] {"b", "c"})
+        {
+            var second = first.equals("b") ? "c" : "b";
+            var dependencies = new LinkedHashMap<String, VersibleRange>();
+            dependencies.put(first, any);
+            dependencies.put(second, any);
+            var catalog = VersibleCatalog.create()
+                    .publish("a", VersibleVersion.of(1), dependencies)
+                    .publish("b", VersibleVersion.of(1), Map.of())
+                    .publish("b", VersibleVersion.of(2), Map.of("c", one))
+                    .publish("c", VersibleVersion.of(1), Map.of())
+                    .publish("c", VersibleVersion.of(2), Map.of("b", one));
+            Assertions.assertEquals(Map.of("a", VersibleVersion.of(1), first, VersibleVersion.of(2), second, VersibleVersion.of(1)),
+                    VersibleResolver.resolve(catalog, Map.of("a", any)));
+            Assertions.assertEquals(dependencies, catalog.dependencies("a", VersibleVersion.of(1)));
+            Assertions.assertEquals(first, catalog.dependencies("a", VersibleVersion.of(1)).keySet().iterator().next());
+        }
+    }
+
+    @Test
+    public void testIncremental()
+    {
+        var catalog = catalog();
+        var resolver = VersibleResolver.incremental(catalog);
+        resolver.add("app", Map.of("core", VersibleParser.parseRange("[1,)")));
+        resolver.add("tool", Map.of("lib", VersibleParser.parseRange("[1.0,1.5)")));
+        resolver.add("broken", Map.of("core", VersibleParser.parseRange("[1,)"), "lib", VersibleParser.parseRange("[2,)")));
+        Assertions.assertEquals(VersibleVersion.of(1, 1), resolver.result("tool").get("lib"));
+        Assertions.assertNull(resolver.result("broken"));
+
+        // Outside every range that mentions lib, so nobody is re-evaluated except the unsatisfied consumer
+        catalog.publish("lib", VersibleVersion.of(3, 0), Map.of());
+        Assertions.assertEquals(Set.of(), resolver.published("lib", VersibleVersion.of(3, 0)));
+
+        // Every consumer is re-evaluated, so none of the stored results is a hit
+        long hits = VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleResolver.Incremental.CACHE));
+        long misses = VersibleMetrics.global().count(VersibleMetrics.cacheMisses(VersibleResolver.Incremental.CACHE));
+        catalog.publish("lib", VersibleVersion.of(1, 2), Map.of());
+        Assertions.assertEquals(Set.of("app", "tool"), resolver.published("lib", VersibleVersion.of(1, 2)));
+        Assertions.assertEquals(0, VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleResolver.Incremental.CACHE)) - hits);
+        Assertions.assertEquals(3, VersibleMetrics.global().count(VersibleMetrics.cacheMisses(VersibleResolver.Incremental.CACHE)) - misses);
+        Assertions.assertEquals(VersibleVersion.of(1, 2), resolver.result("app").get("lib"));
+        Assertions.assertEquals(VersibleVersion.of(1, 2), resolver.result("tool").get("lib"));
+
+        // The missing dependency appears, so core 2.0 becomes possible, which also fixes the unsatisfied consumer
+        hits = VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleResolver.Incremental.CACHE));
+        catalog.publish("util", VersibleVersion.of(5), Map.of());
+        Assertions.assertEquals(Set.of("broken"), resolver.published("util", VersibleVersion.of(5)));
+        Assertions.assertEquals(2, VersibleMetrics.global().count(VersibleMetrics.cacheHits(VersibleResolver.Incremental.CACHE)) - hits);
+        Assertions.assertEquals(Map.of("core", VersibleVersion.of(2, 0), "lib", VersibleVersion.of(3, 0), "util", VersibleVersion.of(5)), resolver.result("broken"));
+
+        // Nothing app depends on changed, so it keeps core 1.0, although resolving it from scratch would now pick core 2.0
+        Assertions.assertEquals(VersibleVersion.of(1, 0), resolver.result("app").get("core"));
+        Assertions.assertEquals(VersibleVersion.of(2, 0), VersibleResolver.resolve(catalog, Map.of("core", VersibleParser.parseRange("[1,)"))).get("core"));
+
+        catalog.retract("lib", VersibleVersion.of(1, 2));
+        Assertions.assertEquals(Set.of("app", "tool"), resolver.retracted("lib", VersibleVersion.of(1, 2)));
+        Assertions.assertEquals(VersibleVersion.of(1, 1), resolver.result("tool").get("lib"));
+
+        catalog.retract("util", VersibleVersion.of(5));
+        Assertions.assertEquals(Set.of("broken"), resolver.retracted("util", VersibleVersion.of(5)));
+        Assertions.assertNull(resolver.result("broken"));
+        Assertions.assertEquals(Map.of("core", VersibleVersion.of(1, 0), "lib", VersibleVersion.of(1, 1)), resolver.result("app"));
+    }
+
+    @Test
+    public void testResolveParallel()
+    {
+        var catalog = VersibleCatalog.create()
+                .publish("shared", VersibleVersion.of(1), Map.of())
+                .publish("shared", VersibleVersion.of(2), Map.of());
+        var requirements = new HashMap<String, VersibleRange>();
+        for (int c = 0; c < 20; c++)
+        {
+            // Each cluster is a chain whose newest head conflicts with its tail, forcing some backtracking
+            catalog.publish("head" + c, VersibleVersion.of(1), Map.of("tail" + c, VersibleParser.parseRange("[1,2)"), "shared", VersibleParser.parseRange("[1,)")))
+                    .publish("head" + c, VersibleVersion.of(2), Map.of("tail" + c, VersibleParser.parseRange("[3,)"), "shared", VersibleParser.parseRange("[2,)")))
+                    .publish("tail" + c, VersibleVersion.of(1, c), Map.of())
+                    .publish("tail" + c, VersibleVersion.of(2), Map.of());
+            requirements.put("head" + c, VersibleParser.parseRange("[1,)"));
+        }
+        requirements.put("shared", VersibleRange.exactly(VersibleVersion.of(2)));
+
+        var expected = VersibleResolver.resolve(catalog, requirements);
+        Assertions.assertNotNull(expected);
+        Assertions.assertEquals(VersibleVersion.of(1, 7), expected.get("tail7"));
+        var pool = new ForkJoinPool(4);
+        try
+        {
+            Assertions.assertEquals(expected, VersibleResolver.resolveParallel(catalog, requirements, pool));
+
+            requirements.put("shared", VersibleRange.exactly(VersibleVersion.of(3)));
+            Assertions.assertNull(VersibleResolver.resolveParallel(catalog, requirements, pool));
+            requirements.put("shared", VersibleRange.exactly(VersibleVersion.of(2)));
+            requirements.put("tail3", VersibleParser.parseRange("[2,)"));
+            Assertions.assertNull(VersibleResolver.resolve(catalog, requirements));
+            Assertions.assertNull(VersibleResolver.resolveParallel(catalog, requirements, pool));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testResolveParallelPinDependencies()
+    {
+        var catalog = VersibleCatalog.create()
+                .publish("app", VersibleVersion.of(1, 0), Map.of("lib", VersibleParser.parseRange("[1.0,2.0)")))
+                .publish("lib", VersibleVersion.of(1, 0), Map.of())
+                .publish("lib", VersibleVersion.of(2, 0), Map.of())
+                .publish("other", VersibleVersion.of(1), Map.of("app", VersibleParser.parseRange("[1.0,)")));
+        var pool = new ForkJoinPool(2);
+        try
+        {
+            // The dependencies of a pinned version are resolved and enforced
+            var requirements = new LinkedHashMap<String, VersibleRange>();
+            requirements.put("app", VersibleRange.exactly(VersibleVersion.of(1, 0)));
+            var expected = Map.of("app", VersibleVersion.of(1, 0), "lib", VersibleVersion.of(1, 0));
+            Assertions.assertEquals(expected, VersibleResolver.resolve(catalog, requirements));
+            Assertions.assertEquals(expected, VersibleResolver.resolveParallel(catalog, requirements, pool));
+
+            requirements.put("lib", VersibleParser.parseRange("[1.0,)"));
+            requirements.put("other", VersibleParser.parseRange("[1,)"));
+            Assertions.assertEquals(VersibleResolver.resolve(catalog, requirements), VersibleResolver.resolveParallel(catalog, requirements, pool));
+            Assertions.assertEquals(VersibleVersion.of(1, 0), VersibleResolver.resolveParallel(catalog, requirements, pool).get("lib"));
+
+            requirements.put("lib", VersibleParser.parseRange("[2.0,)"));
+            Assertions.assertNull(VersibleResolver.resolve(catalog, requirements));
+            Assertions.assertNull(VersibleResolver.resolveParallel(catalog, requirements, pool));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import dev.gigaherz.versible.VersibleManifestScanner;
+import dev.gigaherz.versible.VersibleManifestScanner.Field;
+import dev.gigaherz.versible.VersibleManifestScanner.Syntax;
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScannerTests
+{
+    @Test
+    public void testMavenMetadata() throws IOException
+    {
+        var xml = """
+                <metadata>
+                  <groupId>dev.gigaherz.versible</groupId>
+                  <versioning>
+                    <latest>1.1</latest>
+                    <versions>
+                      <version>1.0-SNAPSHOT</version>
+                      <version> 1.0 </version>
+                      <version>1.1</version>
+                      <version>not a version</version>
+                    </versions>
+                  </versioning>
+                </metadata>
+                """;
+        var collected = new Collected();
+        VersibleManifestScanner.of(Field.version(Syntax.XML_ELEMENT, "version"))
+                .scan(Channels.newChannel(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))), collected);
+
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.0-SNAPSHOT"), VersibleParser.parseVersion("1.0"), VersibleParser.parseVersion("1.1")), collected.versions);
+        Assertions.assertEquals(1, collected.invalid);
+        Assertions.assertEquals(xml.indexOf("1.0-SNAPSHOT"), (long) collected.offsets.get(0));
+    }
+
+    @Test
+    public void testModsToml() throws IOException
+    {
+        var toml = """
+                modLoader="javafml"
+                loaderVersion="[47,)"
+                [[mods]]
+                modId="example"
+                version = "1.2.3"
+                [[dependencies.example]]
+                    modId="minecraft"
+                    versionRange="[1.20.1,1.21)"
+                """;
+        var collected = new Collected();
+        var file = Files.createTempFile("mods", ".toml");
+        try
+        {
+            Files.writeString(file, toml);
+            VersibleManifestScanner.of(Field.version(Syntax.TOML_STRING, "version"), Field.range(Syntax.TOML_STRING, "versionRange"))
+                    .scan(file, collected);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.2.3")), collected.versions);
+        Assertions.assertEquals(List.of(VersibleParser.parseRange("[1.20.1,1.21)")), collected.ranges);
+        Assertions.assertEquals(0, collected.invalid);
+    }
+
+    @Test
+    public void testLargeJsonIndex() throws IOException
+    {
+        var json = new StringBuilder("[");
+        List<VersibleVersion> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+        {
+            if (i > 0)
+                json.append(",\n");
+            json.append("{\"name\": \"artifact").append(i).append("\", \"version\" : \"").append(i / 100).append('.').append(i % 100).append("\"}");
+            expected.add(VersibleVersion.of(i / 100, i % 100));
+        }
+        json.append("]");
+
+        var collected = new Collected();
+        var bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        var scanner = VersibleManifestScanner.of(Field.version(Syntax.JSON_STRING, "version"));
+        scanner.scan(Channels.newChannel(new ByteArrayInputStream(bytes)), collected);
+        Assertions.assertEquals(expected, collected.versions);
+
+        var file = Files.createTempFile("index", ".json");
+        try
+        {
+            Files.write(file, bytes);
+            var mapped = new Collected();
+            scanner.scan(file, mapped);
+            Assertions.assertEquals(expected, mapped.versions);
+            Assertions.assertEquals(collected.offsets, mapped.offsets);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    private static class Collected implements VersibleManifestScanner.Listener
+    {
+        final List<VersibleVersion> versions = new ArrayList<>();
+        final List<VersibleRange> ranges = new ArrayList<>();
+        final List<Long> offsets = new ArrayList<>();
+        int invalid;
+
+        @Override
+        public void version(Field field, long offset, VersibleVersion version)
+        {
+            versions.add(version);
+            offsets.add(offset);
+        }
+
+        @Override
+        public void range(Field field, long offset, VersibleRange range)
+        {
+            ranges.add(range);
+            offsets.add(offset);
+        }
+
+        @Override
+        public void invalid(Field field, long offset, IllegalArgumentException exception)
+        {
+            invalid++;
+        }
+    }
+}
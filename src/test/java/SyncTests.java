@@ -0,0 +1,98 @@
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleSync;
+import dev.gigaherz.versible.VersibleVersion;
+import dev.gigaherz.versible.VersibleVersionIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class SyncTests
+{
+    @Test
+    public void testSynchronize()
+    {
+        var a = new VersibleVersionIndex();
+        var b = new VersibleVersionIndex();
+        for (int major = 0; major < 50; major++)
+        {
+            for (int minor = 0; minor < 200; minor++)
+            {
+                var version = VersibleVersion.of(major, minor);
+                a.add(version);
+                b.add(version);
+            }
+        }
+        a.add(VersibleVersion.of(7, 500));
+        a.add(VersibleVersion.of(31, 0, 1));
+        b.add(VersibleVersion.of(12, 3, 4));
+        b.add(VersibleVersion.of(99));
+
+        var result = VersibleSync.synchronize(a, VersibleSync.inProcess(b));
+        Assertions.assertEquals(2, result.received());
+        Assertions.assertEquals(2, result.sent());
+        Assertions.assertTrue(result.bucketsCompared() < 100, "Compared " + result.bucketsCompared() + " buckets");
+        Assertions.assertEquals(10004, a.size());
+        Assertions.assertEquals(a.snapshot(), b.snapshot());
+        Assertions.assertEquals(VersibleSync.digest(a, VersibleSync.Bucket.ALL), VersibleSync.digest(b, VersibleSync.Bucket.ALL));
+
+        var again = VersibleSync.synchronize(b, VersibleSync.inProcess(a));
+        Assertions.assertEquals(new VersibleSync.Result(1, 0, 0), again);
+
+        var empty = new VersibleVersionIndex();
+        Assertions.assertEquals(10004, VersibleSync.synchronize(empty, VersibleSync.inProcess(a)).received());
+        Assertions.assertEquals(a.snapshot(), empty.snapshot());
+    }
+
+    @Test
+    public void testStableHash()
+    {
+        Assertions.assertEquals(VersibleSync.stableHash(VersibleVersion.of(1, 0)), VersibleSync.stableHash(VersibleParser.parseVersion("01.0")));
+        // The hash is part of the wire protocol, so it must never change
+        Assertions.assertEquals(0xb766b41ebd1e5a49L, VersibleSync.stableHash(VersibleVersion.of(1, 0)));
+        Assertions.assertNotEquals(VersibleSync.stableHash(VersibleVersion.of(1, 0)), VersibleSync.stableHash(VersibleVersion.of(1, 1)));
+    }
+
+    @Test
+    public void testDigestsFollowUpdates()
+    {
+        var index = new VersibleVersionIndex();
+        var random = new Random(47);
+        for (int i = 0; i < 500; i++)
+            index.add(VersibleVersion.of(random.nextInt(20), random.nextInt(50)));
+
+        // Hash every segment once, then keep updating the index through every kind of change, including segment splits and removals
+        assertDigests(index);
+        for (int round = 0; round < 20; round++)
+        {
+            for (int i = 0; i < 50; i++)
+                index.add(VersibleVersion.of(random.nextInt(20), random.nextInt(50)));
+            for (int i = 0; i < 20; i++)
+                index.remove(VersibleVersion.of(random.nextInt(20), random.nextInt(50)));
+            var batch = new ArrayList<VersibleVersion>();
+            for (int i = 0; i < 30; i++)
+                batch.add(VersibleVersion.of(random.nextInt(20), random.nextInt(50), 1));
+            index.addAll(batch);
+            assertDigests(index);
+        }
+    }
+
+    private static void assertDigests(VersibleVersionIndex index)
+    {
+        for (int major = 0; major < 20; major += 3)
+        {
+            var bucket = new VersibleSync.Bucket(VersibleVersion.of(major), VersibleVersion.of(major + 4));
+            var versions = VersibleSync.versions(index, bucket);
+            long hash = 0;
+            for (var version : versions)
+                hash ^= VersibleSync.stableHash(version);
+            Assertions.assertEquals(new VersibleSync.Digest(versions.size(), hash), VersibleSync.digest(index, bucket));
+            Assertions.assertEquals(versions.size() >= 2 ? versions.get(versions.size() / 2) : null, VersibleSync.median(index, bucket));
+        }
+        long hash = 0;
+        for (var version : index)
+            hash ^= VersibleSync.stableHash(version);
+        Assertions.assertEquals(new VersibleSync.Digest(index.size(), hash), VersibleSync.digest(index, VersibleSync.Bucket.ALL));
+    }
+}
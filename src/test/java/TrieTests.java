@@ -0,0 +1,103 @@
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+import dev.gigaherz.versible.VersibleVersionTrie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TrieTests
+{
+    @Test
+    public void testOrdering()
+    {
+        var trie = new VersibleVersionTrie();
+        for (var s : List.of("1.20.1", "1.20.1-rc1", "1.20.1-pre2", "1.20.1-pre1", "1.20.1+build3", "1.20", "1.20.2", "1.20.1.1"))
+            Assertions.assertTrue(trie.add(VersibleParser.parseVersion(s)));
+        Assertions.assertFalse(trie.add(VersibleParser.parseVersion("1.20.1")));
+
+        var expected = List.of("1.20", "1.20.1-pre1", "1.20.1-pre2", "1.20.1-rc1", "1.20.1", "1.20.1+build3", "1.20.1.1", "1.20.2");
+        Assertions.assertEquals(expected, trie.stream().map(VersibleVersion::toString).toList());
+        Assertions.assertEquals(expected.size(), trie.size());
+    }
+
+    @Test
+    public void testLookups()
+    {
+        var trie = new VersibleVersionTrie();
+        for (var s : List.of("1.0-alpha", "1.0", "1.0+1", "1.1", "2.0-beta", "2.0"))
+            trie.add(VersibleParser.parseVersion(s));
+
+        Assertions.assertEquals(VersibleParser.parseVersion("1.0-alpha"), trie.first());
+        Assertions.assertEquals(VersibleParser.parseVersion("2.0"), trie.last());
+        Assertions.assertEquals(VersibleParser.parseVersion("1.0"), trie.ceiling(VersibleParser.parseVersion("1.0-beta")));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.0-alpha"), trie.floor(VersibleParser.parseVersion("1.0-beta")));
+        Assertions.assertEquals(VersibleParser.parseVersion("1.1"), trie.floor(VersibleParser.parseVersion("1.2")));
+        Assertions.assertNull(trie.ceiling(VersibleParser.parseVersion("3")));
+        Assertions.assertNull(trie.floor(VersibleParser.parseVersion("1")));
+
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.0"), VersibleParser.parseVersion("1.0+1")),
+                trie.matching(VersibleParser.parseRange("1.0")));
+        Assertions.assertEquals(List.of(VersibleParser.parseVersion("1.1"), VersibleParser.parseVersion("2.0-beta")),
+                trie.matching(VersibleParser.parseRange("(1.0+1,2.0)")));
+
+        Assertions.assertTrue(trie.remove(VersibleParser.parseVersion("1.0")));
+        Assertions.assertFalse(trie.contains(VersibleParser.parseVersion("1.0")));
+        Assertions.assertTrue(trie.contains(VersibleParser.parseVersion("1.0+1")));
+        Assertions.assertFalse(trie.remove(VersibleParser.parseVersion("1.0")));
+    }
+
+    @Test
+    public void testAgainstTreeSet()
+    {
+        var random = new Random(1234);
+        var trie = new VersibleVersionTrie();
+        var set = new TreeSet<VersibleVersion>();
+        for (int i = 0; i < 2000; i++)
+        {
+            var v = randomVersion(random);
+            Assertions.assertEquals(set.add(v), trie.add(v));
+        }
+        for (int i = 0; i < 300; i++)
+        {
+            var v = randomVersion(random);
+            Assertions.assertEquals(set.remove(v), trie.remove(v));
+        }
+
+        Assertions.assertEquals(new ArrayList<>(set), trie.stream().toList());
+        for (int i = 0; i < 500; i++)
+        {
+            var v = randomVersion(random);
+            Assertions.assertEquals(set.contains(v), trie.contains(v));
+            Assertions.assertEquals(set.floor(v), trie.floor(v), () -> "floor " + v);
+            Assertions.assertEquals(set.ceiling(v), trie.ceiling(v), () -> "ceiling " + v);
+
+            var w = randomVersion(random);
+            var range = v.compareTo(w) <= 0
+                    ? new VersibleRange(v, random.nextBoolean(), w, random.nextBoolean())
+                    : random.nextBoolean() ? VersibleRange.atLeast(w) : VersibleRange.lessThan(v);
+            Assertions.assertEquals(set.stream().filter(range).toList(), trie.matching(range), range::toString);
+        }
+    }
+
+    private static VersibleVersion randomVersion(Random random)
+    {
+        int length = 1 + random.nextInt(5);
+        Object[] components = new Object[length];
+        for (int i = 0; i < length; i++)
+        {
+            components[i] = switch (random.nextInt(6))
+            {
+                case 0 -> '-';
+                case 1 -> '+';
+                case 2 -> random.nextBoolean() ? "a" : "b";
+                default -> random.nextInt(3);
+            };
+        }
+        return VersibleVersion.of(components);
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates version strings shaped like the ones found in real repositories, for use by {@link WorkloadReplay}.
+ * The same seed always produces the same corpus, so results can be compared between runs.
+ */
+public class VersionCorpora
+{
+    public enum Kind
+    {
+        /**
+         * Maven-style versions: {@code 3.8.1}, {@code 2.0-SNAPSHOT}, {@code 5.4.2.Final}, {@code 1.1-RC2}.
+         */
+        MAVEN,
+        /**
+         * Minecraft-style versions: weekly snapshots such as {@code 23w32a}, mixed with {@code 1.20.1}, {@code 1.20-pre3} and {@code 1.20.2-rc1}.
+         */
+        SNAPSHOTS,
+        /**
+         * Semantic versions with long prerelease and build chains, such as {@code 2.0.0-alpha.1.beta.3+build.456}.
+         */
+        SEMVER,
+        /**
+         * An even mix of the other kinds.
+         */
+        MIXED
+    }
+
+    private static final String[] MAVEN_QUALIFIERS = {"-SNAPSHOT", "-alpha", "-beta", "-RC", "-M", ".Final", ".RELEASE"};
+    private static final String[] PRERELEASE_WORDS = {"alpha", "beta", "rc", "pre", "dev", "nightly"};
+
+    public static List<String> generate(Kind kind, int count, long seed)
+    {
+        var random = new Random(seed);
+        List<String> versions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            versions.add(next(kind, random));
+        return versions;
+    }
+
+    private static String next(Kind kind, Random random)
+    {
+        return switch (kind)
+        {
+            case MAVEN -> maven(random);
+            case SNAPSHOTS -> snapshot(random);
+            case SEMVER -> semver(random);
+            case MIXED -> next(Kind.values()[random.nextInt(3)], random);
+        };
+    }
+
+    private static String maven(Random random)
+    {
+        var b = new StringBuilder();
+        b.append(random.nextInt(10)).append('.').append(random.nextInt(30));
+        if (random.nextInt(3) > 0)
+            b.append('.').append(random.nextInt(20));
+        if (random.nextInt(4) == 0)
+        {
+            var qualifier = MAVEN_QUALIFIERS[random.nextInt(MAVEN_QUALIFIERS.length)];
+            b.append(qualifier);
+            if (qualifier.equals("-RC") || qualifier.equals("-M"))
+                b.append(1 + random.nextInt(5));
+        }
+        return b.toString();
+    }
+
+    private static String snapshot(Random random)
+    {
+        var b = new StringBuilder();
+        switch (random.nextInt(4))
+        {
+            case 0, 1 -> b.append(12 + random.nextInt(13)).append('w').append(String.format("%02d", 1 + random.nextInt(52))).append((char) ('a' + random.nextInt(4)));
+            case 2 -> b.append("1.").append(random.nextInt(21)).append('.').append(random.nextInt(5));
+            default -> b.append("1.").append(random.nextInt(21)).append(random.nextBoolean() ? "-pre" : "-rc").append(1 + random.nextInt(8));
+        }
+        return b.toString();
+    }
+
+    private static String semver(Random random)
+    {
+        var b = new StringBuilder();
+        b.append(random.nextInt(5)).append('.').append(random.nextInt(20)).append('.').append(random.nextInt(50));
+        int chain = random.nextInt(6);
+        for (int i = 0; i < chain; i++)
+        {
+            b.append(i == 0 ? '-' : '.');
+            b.append(PRERELEASE_WORDS[random.nextInt(PRERELEASE_WORDS.length)]).append('.').append(random.nextInt(20));
+        }
+        if (random.nextInt(3) == 0)
+            b.append("+build.").append(random.nextInt(1000));
+        return b.toString();
+    }
+
+    /**
+     * Derives a range string from a version string, in one of the syntaxes accepted by the parser.
+     */
+    public static String rangeAround(String version, String other, Random random)
+    {
+        int dot = version.indexOf('.');
+        return switch (random.nextInt(5))
+        {
+            case 0 -> ">=" + version;
+            case 1 -> "<" + version;
+            case 2 -> dot > 0 && version.chars().limit(dot).allMatch(Character::isDigit) ? version.substring(0, dot) + ".*" : version;
+            case 3 -> "[" + version + "," + other + ")";
+            default -> version;
+        };
+    }
+
+    private VersionCorpora()
+    {
+    }
+}
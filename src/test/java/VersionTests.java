@@ -1,8 +1,14 @@
+import dev.gigaherz.versible.VersibleComponent;
 import dev.gigaherz.versible.VersibleParser;
 import dev.gigaherz.versible.VersibleVersion;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 public class VersionTests
 {
 
@@ -26,6 +32,120 @@ public class VersionTests
 
         // A version is smaller if it has a negative suffix
         Assertions.assertEquals(1, VersibleVersion.of(1,0,0).compareTo(VersibleVersion.of(1,0,0,'-',2)));
+
+        // Negative suffixes sort before positive suffixes
+        Assertions.assertEquals(-1, VersibleVersion.of(1,0,'-',"a").compareTo(VersibleVersion.of(1,0,'+',"a")));
+        Assertions.assertEquals(1, VersibleVersion.of(1,0,'+',"a").compareTo(VersibleVersion.of(1,0,'-',"a")));
+    }
+
+    @Test
+    public void testDerivation()
+    {
+        var base = VersibleVersion.of(1,20,1);
+
+        // Derived versions are equal to versions built from scratch
+        Assertions.assertEquals(VersibleVersion.of(1,20,1,0,'-'), base.append(0,'-'));
+        Assertions.assertEquals(VersibleVersion.of(1,20,1,'-',"pre",1), base.append(VersibleVersion.of('-',"pre",1)));
+        Assertions.assertEquals(VersibleVersion.of(1,21,1), base.bump(1));
+        Assertions.assertEquals(VersibleVersion.of(1,20,2,0), base.bump(2).append(0));
+        Assertions.assertEquals(VersibleVersion.of(1,20,2,0).hashCode(), base.bump(2).append(0).hashCode());
+        Assertions.assertEquals("1.20.2.0", base.bump(2).append(0).toString());
+
+        // The original version is not modified
+        Assertions.assertEquals(VersibleVersion.of(1,20,1), base);
+
+        // Long derivation chains
+        var v = base;
+        for (int i = 0; i < 50; i++)
+            v = v.bump(0).append(i);
+        Assertions.assertEquals(53, v.size());
+        Assertions.assertEquals(VersibleVersion.of(51), VersibleVersion.of(v.get(0)));
+        Assertions.assertEquals(VersibleVersion.of(49), VersibleVersion.of(v.get(52)));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleVersion.of(1,"a").bump(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> base.bump(3));
+    }
+
+    @Test
+    public void testBuilder()
+    {
+        var builder = VersibleVersion.builder();
+        Assertions.assertEquals(VersibleVersion.of(1,20,"pre",'-',"rc",2), builder.number(1).number(20).word("pre").suffix(false).word(new StringBuilder("rc")).number(2).build());
+        Assertions.assertEquals(6, builder.size());
+
+        // The builder can keep being modified after building
+        Assertions.assertEquals(VersibleVersion.of(1,20,"pre",'-',"rc",3), builder.bump(5).build());
+        Assertions.assertEquals(VersibleVersion.of(1,20,"pre",'+',"build"), builder.truncate(3).suffix(true).word("build").build());
+        Assertions.assertEquals(VersibleVersion.of(1,21,2), builder.reset().append(VersibleVersion.of(1,20)).bump(1).number(2).build());
+        Assertions.assertEquals("1.21.2", builder.build().toString());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.reset().number(1).word("a").bump(1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.reset().build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.number(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.word("a1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.word(""));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> builder.truncate(1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.reset().number(Long.MAX_VALUE).bump(0));
+
+        // Versions longer than the initial buffers grow them
+        var longer = VersibleVersion.of(1,2,3,4,5,6,7,8,"a",'-',9,10);
+        builder.reset();
+        for (int i = 0; i < 8; i++)
+            builder.suffix(true);
+        Assertions.assertEquals(VersibleVersion.of('+','+','+','+','+','+','+','+',9), builder.number(9).build());
+        Assertions.assertEquals(longer, builder.reset().append(longer).build());
+        Assertions.assertEquals(VersibleVersion.of(1,2,3,4,5,6,7,8,"a",'-',9,10,1,2,3,4,5,6,7,8,"a",'-',9,10), builder.append(longer).build());
+    }
+
+    @Test
+    public void testRendering()
+    {
+        // Canonical source text is kept as-is
+        var text = "1.20.1-pre2";
+        Assertions.assertSame(text, VersibleParser.parseVersion(text).toString());
+        Assertions.assertEquals("1a", VersibleParser.parseVersion("01.a").toString());
+        Assertions.assertEquals("1", VersibleParser.parseVersion("1.").toString());
+        Assertions.assertEquals("1.0", VersibleParser.parseRange("[1.0,2)").minVersion().toString());
+
+        var version = VersibleVersion.of(1,20,'+',"build",7);
+        Assertions.assertEquals("v1.20+build7", version.appendTo(new StringBuilder("v")).toString());
+
+        var buffer = ByteBuffer.allocate(12);
+        version.writeTo(buffer);
+        Assertions.assertEquals("1.20+build7", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+        Assertions.assertThrows(BufferOverflowException.class, () -> version.writeTo(buffer));
+        Assertions.assertEquals(11, buffer.position());
+
+        var unicode = ByteBuffer.allocate(16);
+        VersibleVersion.of(2,"\u00DF").writeTo(unicode);
+        Assertions.assertEquals("2\u00DF", new String(unicode.array(), 0, unicode.position(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLazyParsing()
+    {
+        var text = "1.20.1-pre2";
+        var lazy = VersibleParser.parseVersionLazy(text);
+        Assertions.assertSame(text, lazy.toString());
+        Assertions.assertEquals(VersibleParser.parseVersion(text), lazy);
+        Assertions.assertEquals(0, lazy.compareTo(VersibleVersion.of(1,20,1,'-',"pre",2)));
+        Assertions.assertEquals(6, lazy.size());
+        Assertions.assertEquals(VersibleVersion.of(1,20,2,'-',"pre",2), lazy.bump(2));
+
+        // Validation errors are still reported eagerly
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseVersionLazy(""));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseVersionLazy("1..0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseVersionLazy("99999999999999999999"));
+
+        // Lazy and eager versions agree, including on rendering non-canonical text
+        for (var s : new String[]{"01.a", "1.", "1-", "1.a.2", "1a.b", "a.b-1+2", "1.0.0", "\u0661.2"})
+        {
+            var eager = VersibleParser.parseVersion(s);
+            var other = VersibleParser.parseVersionLazy(s);
+            Assertions.assertEquals(eager.toString(), other.toString(), s);
+            Assertions.assertEquals(eager, other, s);
+            Assertions.assertEquals(eager.hashCode(), other.hashCode(), s);
+        }
     }
 
     @Test
@@ -56,4 +176,27 @@ public class VersionTests
         Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseVersion(".0"));
         Assertions.assertThrows(IllegalArgumentException.class, () -> VersibleParser.parseVersion("1.*"));
     }
+
+    @Test
+    public void testComponentKinds()
+    {
+        var ascending = List.of(VersibleComponent.suffix(false), VersibleComponent.suffix(true),
+                VersibleComponent.of("alpha"), VersibleComponent.of("beta"), VersibleComponent.of(0), VersibleComponent.of(10));
+        Assertions.assertEquals(List.of(VersibleComponent.NEGATIVE_SUFFIX, VersibleComponent.POSITIVE_SUFFIX, VersibleComponent.ALPHABETIC,
+                        VersibleComponent.ALPHABETIC, VersibleComponent.NUMERIC, VersibleComponent.NUMERIC),
+                ascending.stream().map(VersibleComponent::kindOf).toList());
+        for (int i = 0; i < ascending.size(); i++)
+        {
+            for (int j = 0; j < ascending.size(); j++)
+            {
+                int expected = Integer.compare(i, j);
+                Assertions.assertEquals(expected, Integer.signum(VersibleComponent.compare(ascending.get(i), ascending.get(j))));
+                Assertions.assertEquals(expected, Integer.signum(ascending.get(i).compareTo(ascending.get(j))));
+            }
+        }
+
+        Assertions.assertTrue(VersibleVersion.of(1, "-", "beta").compareTo(VersibleVersion.of(1)) < 0);
+        Assertions.assertTrue(VersibleVersion.of(1, "+", "build").compareTo(VersibleVersion.of(1)) > 0);
+        Assertions.assertEquals("1.0a.b-rc+7", VersibleVersion.of(1, 0, "a", "b", "-", "rc", "+", 7).toString());
+    }
 }
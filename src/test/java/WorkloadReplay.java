@@ -0,0 +1,260 @@
+import dev.gigaherz.versible.VersibleParser;
+import dev.gigaherz.versible.VersibleRange;
+import dev.gigaherz.versible.VersibleVersion;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Replays a trace of parse, compare and contains operations, and reports throughput, latency percentiles and allocation per operation.
+ * <p>
+ * Traces are either generated from a {@link VersionCorpora} corpus, or loaded from a text file with one operation per line:
+ * <pre>
+ *     parse    &lt;version&gt;
+ *     range    &lt;range&gt;
+ *     compare  &lt;version&gt; &lt;version&gt;
+ *     contains &lt;range&gt; &lt;version&gt;
+ * </pre>
+ * Lines starting with {@code #} are ignored. A generated trace can be saved with {@code --record}, so the same workload can be replayed against later releases.
+ * <p>
+ * Usage: {@code WorkloadReplay [--trace file | --corpus maven|snapshots|semver|mixed] [--ops n] [--seed n] [--iterations n] [--record file]}.
+ * With Gradle, run {@code ./gradlew benchmark --args="..."}.
+ */
+public class WorkloadReplay
+{
+    public enum OpKind
+    {
+        PARSE("parse", 1),
+        RANGE("range", 1),
+        COMPARE("compare", 2),
+        CONTAINS("contains", 2);
+
+        final String name;
+        final int arguments;
+
+        OpKind(String name, int arguments)
+        {
+            this.name = name;
+            this.arguments = arguments;
+        }
+
+        static OpKind byName(String name)
+        {
+            for (var kind : values())
+            {
+                if (kind.name.equals(name))
+                    return kind;
+            }
+            throw new IllegalArgumentException("Unknown operation '" + name + "'.");
+        }
+    }
+
+    /**
+     * A single operation. The text arguments are kept for recording, and pre-parsed where the operation does not measure parsing.
+     */
+    public record Op(OpKind kind, String first, String second, Object a, Object b)
+    {
+        static Op of(OpKind kind, String first, String second)
+        {
+            return switch (kind)
+            {
+                case PARSE, RANGE -> new Op(kind, first, null, first, null);
+                case COMPARE -> new Op(kind, first, second, VersibleParser.parseVersion(first), VersibleParser.parseVersion(second));
+                case CONTAINS -> new Op(kind, first, second, VersibleParser.parseRange(first), VersibleParser.parseVersion(second));
+            };
+        }
+
+        int run()
+        {
+            return switch (kind)
+            {
+                case PARSE -> VersibleParser.parseVersion((String) a).size();
+                case RANGE -> VersibleParser.parseRange((String) a).hashCode();
+                case COMPARE -> ((VersibleVersion) a).compareTo((VersibleVersion) b);
+                case CONTAINS -> ((VersibleRange) a).contains((VersibleVersion) b) ? 1 : 0;
+            };
+        }
+    }
+
+    /**
+     * The statistics collected for one kind of operation.
+     */
+    public record Stats(OpKind kind, int count, double opsPerSecond, long p50, long p90, long p99, long p999, long max, double bytesPerOp)
+    {
+    }
+
+    private static volatile int sink;
+
+    /**
+     * Generates a trace from a corpus. Half of the operations are parses, and the rest are split between range parses, comparisons and containment checks.
+     */
+    public static List<Op> generate(VersionCorpora.Kind corpus, int ops, long seed)
+    {
+        var versions = VersionCorpora.generate(corpus, Math.max(16, ops / 4), seed);
+        var random = new Random(seed);
+        List<Op> trace = new ArrayList<>(ops);
+        for (int i = 0; i < ops; i++)
+        {
+            var version = versions.get(random.nextInt(versions.size()));
+            var other = versions.get(random.nextInt(versions.size()));
+            int roll = random.nextInt(100);
+            if (roll < 50)
+                trace.add(Op.of(OpKind.PARSE, version, null));
+            else if (roll < 60)
+                trace.add(Op.of(OpKind.RANGE, VersionCorpora.rangeAround(version, other, random), null));
+            else if (roll < 80)
+                trace.add(Op.of(OpKind.COMPARE, version, other));
+            else
+                trace.add(Op.of(OpKind.CONTAINS, VersionCorpora.rangeAround(other, version, random), version));
+        }
+        return trace;
+    }
+
+    public static List<Op> load(Path file) throws IOException
+    {
+        List<Op> trace = new ArrayList<>();
+        for (var line : Files.readAllLines(file))
+        {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            var parts = line.split("\\s+");
+            var kind = OpKind.byName(parts[0]);
+            if (parts.length != kind.arguments + 1)
+                throw new IllegalArgumentException("Operation '" + kind.name + "' takes " + kind.arguments + " arguments: " + line);
+            trace.add(Op.of(kind, parts[1], parts.length > 2 ? parts[2] : null));
+        }
+        return trace;
+    }
+
+    public static void save(List<Op> trace, Path file) throws IOException
+    {
+        List<String> lines = new ArrayList<>(trace.size() + 1);
+        lines.add("# Versible workload trace");
+        for (var op : trace)
+            lines.add(op.second() != null ? op.kind().name + " " + op.first() + " " + op.second() : op.kind().name + " " + op.first());
+        Files.write(file, lines);
+    }
+
+    /**
+     * Replays a trace, after the given number of warmup passes, and returns the statistics of one measured pass per kind of operation.
+     */
+    public static Map<OpKind, Stats> replay(List<Op> trace, int warmup)
+    {
+        for (int i = 0; i < warmup; i++)
+            runAll(trace);
+
+        // Latency pass: only timestamps are taken around each operation
+        Map<OpKind, long[]> latencies = new EnumMap<>(OpKind.class);
+        Map<OpKind, Integer> counts = new EnumMap<>(OpKind.class);
+        for (var op : trace)
+            counts.merge(op.kind(), 1, Integer::sum);
+        counts.forEach((kind, count) -> latencies.put(kind, new long[count]));
+        Map<OpKind, Integer> filled = new EnumMap<>(OpKind.class);
+        int result = 0;
+        for (var op : trace)
+        {
+            long start = System.nanoTime();
+            result += op.run();
+            long elapsed = System.nanoTime() - start;
+            int index = filled.merge(op.kind(), 1, Integer::sum) - 1;
+            latencies.get(op.kind())[index] = elapsed;
+        }
+
+        // Allocation pass: kept separate, so reading the allocation counter does not inflate the latencies
+        Map<OpKind, Long> allocated = new EnumMap<>(OpKind.class);
+        var threads = ManagementFactory.getThreadMXBean();
+        var allocationBean = threads instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported() ? bean : null;
+        if (allocationBean != null)
+        {
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+            for (var op : trace)
+            {
+                long before = allocationBean.getCurrentThreadAllocatedBytes();
+                result += op.run();
+                allocated.merge(op.kind(), allocationBean.getCurrentThreadAllocatedBytes() - before, Long::sum);
+            }
+        }
+        sink = result;
+
+        Map<OpKind, Stats> stats = new EnumMap<>(OpKind.class);
+        latencies.forEach((kind, values) ->
+        {
+            long total = 0;
+            for (long value : values)
+                total += value;
+            Arrays.sort(values);
+            double bytes = allocationBean != null ? (double) allocated.getOrDefault(kind, 0L) / values.length : Double.NaN;
+            stats.put(kind, new Stats(kind, values.length, values.length * 1e9 / Math.max(total, 1),
+                    percentile(values, 0.5), percentile(values, 0.9), percentile(values, 0.99), percentile(values, 0.999), values[values.length - 1], bytes));
+        });
+        return stats;
+    }
+
+    private static void runAll(List<Op> trace)
+    {
+        int result = 0;
+        for (var op : trace)
+            result += op.run();
+        sink = result;
+    }
+
+    private static long percentile(long[] sorted, double p)
+    {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    public static void report(Map<OpKind, Stats> stats, PrintStream out)
+    {
+        out.printf("%-9s %9s %13s %8s %8s %8s %9s %10s %10s%n", "op", "count", "ops/s", "p50 ns", "p90 ns", "p99 ns", "p99.9 ns", "max ns", "bytes/op");
+        for (var s : stats.values())
+        {
+            out.printf("%-9s %9d %13.0f %8d %8d %8d %9d %10d %10.1f%n",
+                    s.kind().name, s.count(), s.opsPerSecond(), s.p50(), s.p90(), s.p99(), s.p999(), s.max(), s.bytesPerOp());
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        Path tracePath = null;
+        Path recordPath = null;
+        var corpus = VersionCorpora.Kind.MIXED;
+        int ops = 200_000;
+        long seed = 42;
+        int iterations = 5;
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "--trace" -> tracePath = Path.of(args[++i]);
+                case "--record" -> recordPath = Path.of(args[++i]);
+                case "--corpus" -> corpus = VersionCorpora.Kind.valueOf(args[++i].toUpperCase());
+                case "--ops" -> ops = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument '" + args[i] + "'.");
+            }
+        }
+
+        var trace = tracePath != null ? load(tracePath) : generate(corpus, ops, seed);
+        if (recordPath != null)
+            save(trace, recordPath);
+
+        System.out.println("Replaying " + trace.size() + " operations from " + (tracePath != null ? tracePath : corpus + " corpus, seed " + seed));
+        for (int i = 1; i <= iterations; i++)
+        {
+            System.out.println();
+            System.out.println("Iteration " + i + ":");
+            report(replay(trace, i == 1 ? 3 : 1), System.out);
+        }
+    }
+}